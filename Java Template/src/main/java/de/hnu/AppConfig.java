@@ -20,6 +20,11 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import com.zaxxer.hikari.HikariDataSource;
 
+import de.hnu.repository.RideRepository;
+import de.hnu.repository.UserRepository;
+import de.hnu.service.BookingService;
+import de.hnu.service.JpaBookingSink;
+
 /**
  * Spring Boot JPA Configuration für Car-Sharing Anwendung.
  * Konfiguriert Derby Datenbank mit EclipseLink JPA Provider.
@@ -70,4 +75,26 @@ public class AppConfig {
         return txManager;
     }
 
+    @Bean(destroyMethod = "close")
+    public UserRepository userRepository() {
+        return new UserRepository();
+    }
+
+    @Bean(destroyMethod = "close")
+    public RideRepository rideRepository() {
+        return new RideRepository();
+    }
+
+    /**
+     * Buchungen laufen im Speicher und werden über das Write-Behind in die Derby
+     * Datenbank geschrieben (Tabelle BookingRecord). Beim Beenden schreibt
+     * {@code shutdown} den restlichen Puffer, bevor die EntityManagerFactory schließt.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BookingService bookingService(UserRepository userRepository, RideRepository rideRepository,
+                                         LocalContainerEntityManagerFactoryBean entityManagerFactory) {
+        return new BookingService(userRepository, rideRepository,
+                new JpaBookingSink(entityManagerFactory.getObject()));
+    }
+
 }
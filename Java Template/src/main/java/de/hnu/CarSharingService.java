@@ -2,20 +2,40 @@ package de.hnu;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import de.hnu.model.Ride;
 import de.hnu.model.User;
+import de.hnu.repository.RidePage;
+import de.hnu.service.BatchBookingRequest;
+import de.hnu.service.SeatPolicy;
+import de.hnu.service.SeatRequest;
+import de.hnu.util.IdempotencyCache;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 
 /**
  * REST Controller für Car-Sharing Backend.
@@ -25,6 +45,19 @@ import jakarta.persistence.Query;
 @Transactional
 public class CarSharingService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 500;
+
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    // Anzahl tatsächlich gebuchter Plätze (bei BEST_EFFORT ggf. weniger als angefragt)
+    private static final String BOOKED_SEATS_HEADER = "Booked-Seats";
+    // Antworten werden 24 Stunden für Wiederholungen aufbewahrt
+    private static final long IDEMPOTENCY_TTL_MILLIS = TimeUnit.HOURS.toMillis(24);
+    private static final int IDEMPOTENCY_MAX_KEYS = 10_000;
+
+    private final IdempotencyCache idempotencyCache =
+            new IdempotencyCache(IDEMPOTENCY_MAX_KEYS, IDEMPOTENCY_TTL_MILLIS);
+
     @PersistenceContext
     private EntityManager em;
 
@@ -86,14 +119,197 @@ public class CarSharingService {
         return q.getResultList();
     }
 
+    /**
+     * Fahrten seitenweise abrufen (Keyset-Pagination über die ID).
+     * Jede Seite kostet unabhängig von der Tabellengröße nur einen Index-Zugriff.
+     * GET http://localhost:8080/rides/page?cursor=0&size=20
+     */
+    @GetMapping("/rides/page")
+    public RidePage getRidesPage(@RequestParam(value = "cursor", defaultValue = "0") long cursor,
+                                 @RequestParam(value = "size", defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        TypedQuery<Ride> q = em.createQuery(
+                "SELECT r FROM Ride r WHERE r.id > :cursor ORDER BY r.id", Ride.class);
+        q.setParameter("cursor", cursor);
+        // Ein Element mehr laden, um zu wissen ob es eine weitere Seite gibt
+        q.setMaxResults(pageSize + 1);
+        List<Ride> rides = q.getResultList();
+
+        if (rides.size() > pageSize) {
+            List<Ride> page = rides.subList(0, pageSize);
+            return new RidePage(page, page.get(pageSize - 1).getId());
+        }
+        return new RidePage(rides, RidePage.NO_MORE);
+    }
+
     /**
      * Neue Fahrt erstellen.
      * POST http://localhost:8080/rides
+     *
+     * Mit Header {@code Idempotency-Key} wird eine Wiederholung nicht erneut angelegt,
+     * sondern mit der ersten Antwort beantwortet.
      */
     @PostMapping("/rides")
-    public Ride createRide(@RequestBody Ride ride) {
-        em.persist(ride);
-        return ride;
+    public Ride createRide(@RequestBody Ride ride,
+                           @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotent("POST /rides", idempotencyKey, describe(ride), () -> {
+            em.persist(ride);
+            return ride;
+        });
+    }
+
+    /**
+     * Sammelbuchung: bucht Plätze auf mehreren Fahrten in einer Transaktion.
+     * POST http://localhost:8080/bookings/batch
+     *
+     * Alles oder nichts: Hat eine Fahrt zu wenige Plätze, wird mit 409 abgebrochen
+     * und die ganze Transaktion zurückgerollt. Jede Position ist ein bedingtes UPDATE
+     * ohne vorheriges Laden; alle Positionen werden gemeinsam committet (Gruppen-Commit).
+     * Die Fahrten werden in aufsteigender ID-Reihenfolge gesperrt, damit sich
+     * gleichzeitige Sammelbuchungen nicht gegenseitig blockieren (Deadlock).
+     */
+    @PostMapping("/bookings/batch")
+    public List<Ride> bookRides(@RequestBody BatchBookingRequest request,
+                                @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotent("POST /bookings/batch", idempotencyKey, String.valueOf(request),
+                () -> executeBatchBooking(request));
+    }
+
+    private List<Ride> executeBatchBooking(BatchBookingRequest request) {
+        List<SeatRequest> bookings = request.bookings();
+        if (bookings == null || bookings.isEmpty() || bookings.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Zwischen 1 und " + MAX_BATCH_SIZE + " Positionen erwartet");
+        }
+
+        // Positionen pro Fahrt zusammenfassen, nach ID sortiert
+        Map<Long, Integer> seatsByRide = new TreeMap<>();
+        for (SeatRequest booking : bookings) {
+            if (booking.seats() <= 0) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Mindestens ein Platz pro Position: Fahrt " + booking.rideId());
+            }
+            seatsByRide.merge(booking.rideId(), booking.seats(), Integer::sum);
+        }
+
+        User user = findBookingUser(request.userId());
+
+        for (Map.Entry<Long, Integer> entry : seatsByRide.entrySet()) {
+            if (!decrementSeats(entry.getKey(), entry.getValue())) {
+                throw new ResponseStatusException(HttpStatus.CONFLICT,
+                        "Nicht genug freie Plätze: Fahrt " + entry.getKey());
+            }
+        }
+
+        List<Ride> booked = new ArrayList<>(seatsByRide.size());
+        for (Long rideId : seatsByRide.keySet()) {
+            Ride ride = em.find(Ride.class, rideId);
+            booked.add(ride);
+            if (user != null) {
+                user.getBookedRides().add(ride);
+            }
+        }
+        return booked;
+    }
+
+    /**
+     * Einzelne Fahrt buchen.
+     * POST http://localhost:8080/rides/{id}/book?seats=2&userId=3&policy=BEST_EFFORT
+     *
+     * Statt die Fahrt zu laden, zu ändern und zu mergen (verlorene Updates bei
+     * gleichzeitigen Buchungen) wird nur ein bedingtes UPDATE ausgeführt. Auch bei
+     * vielen gleichzeitigen Buchungen auf dieselbe Fahrt gibt es so keine Überbuchung:
+     * Wer keinen Platz mehr bekommt, erhält sofort 409. Mit {@link SeatPolicy#BEST_EFFORT}
+     * werden auch weniger Plätze gebucht; die Anzahl steht im Header {@code Booked-Seats}.
+     */
+    @PostMapping("/rides/{id}/book")
+    public ResponseEntity<Ride> bookRide(@PathVariable("id") long id,
+                                         @RequestParam(value = "seats", defaultValue = "1") int seats,
+                                         @RequestParam(value = "userId", defaultValue = "0") long userId,
+                                         @RequestParam(value = "policy", defaultValue = "ALL_OR_NOTHING") SeatPolicy policy,
+                                         @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotent("POST /rides/" + id + "/book", idempotencyKey,
+                "seats=" + seats + ", userId=" + userId + ", policy=" + policy,
+                () -> executeBooking(id, seats, userId, policy));
+    }
+
+    private ResponseEntity<Ride> executeBooking(long id, int seats, long userId, SeatPolicy policy) {
+        if (seats <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mindestens ein Platz");
+        }
+        User user = findBookingUser(userId);
+
+        int booked = policy == SeatPolicy.BEST_EFFORT
+                ? decrementAvailableSeats(id, seats)
+                : (decrementSeats(id, seats) ? seats : 0);
+        if (booked == 0) {
+            // Unterscheiden zwischen unbekannter und ausgebuchter Fahrt
+            if (em.find(Ride.class, id) == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Fahrt " + id);
+            }
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Nicht genug freie Plätze: Fahrt " + id);
+        }
+
+        Ride ride = em.find(Ride.class, id);
+        if (user != null) {
+            user.getBookedRides().add(ride);
+        }
+        return ResponseEntity.ok()
+                .header(BOOKED_SEATS_HEADER, String.valueOf(booked))
+                .body(ride);
+    }
+
+    /**
+     * Gibt den buchenden Benutzer zurück; 0 bedeutet ohne Benutzer (null).
+     */
+    private User findBookingUser(long userId) {
+        if (userId == 0) {
+            return null;
+        }
+        User user = em.find(User.class, userId);
+        if (user == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Benutzer " + userId);
+        }
+        return user;
+    }
+
+    /**
+     * Reduziert die freien Plätze einer Fahrt mit einem einzigen bedingten UPDATE.
+     * Prüfung und Änderung passieren atomar in der Datenbank.
+     *
+     * @return true wenn genug Plätze frei waren
+     */
+    private boolean decrementSeats(long rideId, int seats) {
+        int updated = em.createQuery(
+                        "UPDATE Ride r SET r.availableSeats = r.availableSeats - :seats "
+                                + "WHERE r.id = :id AND r.availableSeats >= :seats")
+                .setParameter("seats", seats)
+                .setParameter("id", rideId)
+                .executeUpdate();
+        return updated == 1;
+    }
+
+    /**
+     * Reduziert die freien Plätze um so viele wie möglich, höchstens {@code seats}.
+     *
+     * Ein einzelnes UPDATE reicht hier nicht: Das Begrenzen ginge zwar mit
+     * {@code CASE WHEN r.availableSeats < :seats THEN 0 ELSE ...} (JPQL und Derby kennen
+     * kein LEAST), aber Derby hat kein {@code UPDATE ... RETURNING}, und aus dem Stand
+     * danach lässt sich bei 0 nicht ablesen, wie viele Plätze genommen wurden. Die Anzahl
+     * wird für den Header {@code Booked-Seats} gebraucht. Deshalb wird die Zeile zuerst
+     * gesperrt (SELECT ... FOR UPDATE bis zum Ende der Transaktion); Lesen und Ändern
+     * sehen so denselben Stand, ohne Wiederholungen und ohne Überbuchung.
+     *
+     * @return Anzahl der gebuchten Plätze (0 wenn ausgebucht oder unbekannt)
+     */
+    private int decrementAvailableSeats(long rideId, int seats) {
+        Ride ride = em.find(Ride.class, rideId, LockModeType.PESSIMISTIC_WRITE);
+        if (ride == null || ride.getAvailableSeats() <= 0) {
+            return 0;
+        }
+        int booked = Math.min(seats, ride.getAvailableSeats());
+        ride.setAvailableSeats(ride.getAvailableSeats() - booked);
+        return booked;
     }
 
     /**
@@ -120,9 +336,12 @@ public class CarSharingService {
      * POST http://localhost:8080/users
      */
     @PostMapping("/users")
-    public User createUser(@RequestBody User user) {
-        em.persist(user);
-        return user;
+    public User createUser(@RequestBody User user,
+                           @RequestHeader(value = IDEMPOTENCY_HEADER, required = false) String idempotencyKey) {
+        return idempotent("POST /users", idempotencyKey, describe(user), () -> {
+            em.persist(user);
+            return user;
+        });
     }
 
     /**
@@ -138,4 +357,84 @@ public class CarSharingService {
         return List.of();
     }
 
+    /**
+     * Führt einen schreibenden Request höchstens einmal pro Idempotency-Key aus.
+     *
+     * Ohne Schlüssel wird die Aktion normal ausgeführt. Mit Schlüssel beantwortet eine
+     * Wiederholung den Request aus dem Cache, ohne die Datenbank zu berühren. Läuft der
+     * erste Request noch, bekommt sie sofort 409: Ein Warten hier würde die Transaktion
+     * (und damit eine Datenbankverbindung) der Wiederholung offen halten. Kommt derselbe
+     * Schlüssel mit anderem Inhalt ({@code request}), antwortet der Endpoint mit 422.
+     * Gecacht wird erst nach dem Commit: Wird die Transaktion zurückgerollt, darf die
+     * Wiederholung erneut laufen. Der Schlüssel gilt pro Endpoint ({@code scope}).
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T idempotent(String scope, String idempotencyKey, String request, Supplier<T> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String cacheKey = scope + " " + idempotencyKey;
+        IdempotencyCache.Claim claim = idempotencyCache.claim(cacheKey, request);
+        if (!claim.owner()) {
+            return (T) replay(claim);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyCache.abandon(cacheKey, e);
+            throw e;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    idempotencyCache.complete(cacheKey, response);
+                } else {
+                    idempotencyCache.abandon(cacheKey,
+                            new IllegalStateException("Transaktion zurückgerollt"));
+                }
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Beantwortet eine Wiederholung aus dem Cache, ohne auf den ersten Request zu warten.
+     */
+    private Object replay(IdempotencyCache.Claim claim) {
+        if (!claim.sameRequest()) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+                    "Idempotency-Key wurde bereits für einen anderen Request verwendet");
+        }
+        CompletableFuture<Object> response = claim.response();
+        if (!response.isDone()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Request mit diesem Idempotency-Key wird noch bearbeitet");
+        }
+        if (response.isCompletedExceptionally()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Erster Request mit diesem Idempotency-Key ist fehlgeschlagen, bitte wiederholen");
+        }
+        return response.join();
+    }
+
+    /**
+     * Kanonische Darstellung einer Fahrt für den Vergleich von Wiederholungen.
+     */
+    private static String describe(Ride ride) {
+        return ride.getDriverName() + "|" + ride.getOrigin() + "|" + ride.getDestination()
+                + "|" + ride.getDistanceKm() + "|" + ride.getDate() + "|" + ride.getTime()
+                + "|" + ride.getAvailableSeats() + "|" + ride.getDriverRating()
+                + "|" + (ride.getDriver() != null ? ride.getDriver().getId() : 0);
+    }
+
+    /**
+     * Kanonische Darstellung eines Benutzers für den Vergleich von Wiederholungen.
+     */
+    private static String describe(User user) {
+        return user.getFirstName() + "|" + user.getLastName() + "|" + user.getRating();
+    }
+
 }
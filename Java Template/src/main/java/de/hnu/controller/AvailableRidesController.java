@@ -1,6 +1,8 @@
 package de.hnu.controller;
 
 import de.hnu.model.Ride;
+import de.hnu.repository.RidePage;
+import de.hnu.service.RideSearchQuery;
 import de.hnu.service.RideService;
 import de.hnu.service.SessionService;
 import de.hnu.ui.NavigationService;
@@ -12,7 +14,7 @@ import java.util.List;
  * Controller für die "Available Rides" View (Page 120).
  *
  * Verantwortlich für:
- * - Laden aller verfügbaren Fahrten
+ * - Seitenweises Laden der Suchergebnisse bzw. aller verfügbaren Fahrten
  * - Navigation zu Fahrt-Details
  * - Filter-Funktionalität (Platzhalter)
  */
@@ -21,21 +23,53 @@ public class AvailableRidesController {
     private final RideService rideService;
     private final NavigationService navigationService;
     private final SessionService sessionService;
+    private final RideSearchQuery query;
 
+    // Fahrten pro Seite; weitere Seiten lädt der Nutzer bei Bedarf nach
+    private static final int PAGE_SIZE = 20;
+    private long nextCursor = RidePage.FIRST;
+
+    /**
+     * @param query Suchkriterien aus "Find a Ride" oder null für alle Fahrten
+     */
     public AvailableRidesController(RideService rideService,
                                     NavigationService navigationService,
-                                    SessionService sessionService) {
+                                    SessionService sessionService,
+                                    RideSearchQuery query) {
         this.rideService = rideService;
         this.navigationService = navigationService;
         this.sessionService = sessionService;
+        this.query = query;
+    }
+
+    /**
+     * Gibt die nächste Seite der Fahrten zur aktuellen Suche zurück.
+     * Ohne Suche werden alle Fahrten angezeigt.
+     *
+     * ISO 9241-11 Effizienz: Die ersten Ergebnisse erscheinen sofort,
+     * auch bei sehr vielen Treffern.
+     */
+    public List<Ride> loadNextRides() {
+        if (!hasMoreRides()) {
+            return List.of();
+        }
+        if (query != null && query.hasDepartureWindow()) {
+            // Zeitfenster-Suchen sind auf einen Tag begrenzt und nach Abfahrt sortiert
+            nextCursor = RidePage.NO_MORE;
+            return rideService.searchRides(query);
+        }
+        String from = query != null ? query.from() : null;
+        String to = query != null ? query.to() : null;
+        RidePage page = rideService.searchRidesPage(from, to, nextCursor, PAGE_SIZE);
+        nextCursor = page.nextCursor();
+        return page.rides();
     }
 
     /**
-     * Gibt alle verfügbaren Fahrten zurück.
-     * In diesem Prototyp werden immer alle Fahrten angezeigt.
+     * Prüft ob weitere Fahrten nachgeladen werden können.
      */
-    public List<Ride> getAvailableRides() {
-        return rideService.getAllRides();
+    public boolean hasMoreRides() {
+        return nextCursor != RidePage.NO_MORE;
     }
 
     /**
@@ -70,6 +104,6 @@ public class AvailableRidesController {
      * Gibt die Benutzer-Initialen für den Header zurück.
      */
     public String getUserInitials() {
-        return sessionService.getCurrentUserInitials();
+        return sessionService.getUserInitials(navigationService.getSessionToken());
     }
 }
@@ -28,10 +28,11 @@ public class BookingConfirmationController {
     }
 
     /**
-     * Gibt die zuletzt gebuchte Fahrt zurück.
+     * Gibt die zuletzt gebuchte Fahrt des aktuellen Benutzers zurück.
      */
     public Ride getBookedRide() {
-        return bookingService.getLastBookedRide();
+        long userId = navigationService.getSessionUserId();
+        return bookingService.getLastBookedRide(userId);
     }
 
     /**
@@ -55,6 +56,6 @@ public class BookingConfirmationController {
      * Gibt die Benutzer-Initialen für den Header zurück.
      */
     public String getUserInitials() {
-        return sessionService.getCurrentUserInitials();
+        return sessionService.getUserInitials(navigationService.getSessionToken());
     }
 }
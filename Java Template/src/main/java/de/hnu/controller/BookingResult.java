@@ -0,0 +1,35 @@
+package de.hnu.controller;
+
+/**
+ * Ergebnis eines Klicks auf "Book this ride".
+ *
+ * Unterscheidet eine ausgebuchte Fahrt (Warteliste sinnvoll) von einer Fahrt, auf der
+ * nur weniger Plätze frei sind als gewünscht (Warteliste sinnlos, weniger Plätze wählen).
+ *
+ * @param bookedSeats Anzahl der gebuchten Plätze (0 wenn nichts gebucht wurde)
+ * @param bookableSeats Plätze, die der Benutzer danach noch buchen könnte
+ *                      (freie plus für ihn reservierte)
+ */
+public record BookingResult(int bookedSeats, int bookableSeats) {
+
+    /**
+     * Prüft ob mindestens ein Platz gebucht wurde.
+     */
+    public boolean isBooked() {
+        return bookedSeats > 0;
+    }
+
+    /**
+     * Prüft ob nichts gebucht wurde, weil die Fahrt ausgebucht ist.
+     */
+    public boolean isRideFull() {
+        return bookedSeats == 0 && bookableSeats == 0;
+    }
+
+    /**
+     * Prüft ob nichts gebucht wurde, obwohl noch (zu wenige) Plätze frei sind.
+     */
+    public boolean isTooFewSeats() {
+        return bookedSeats == 0 && bookableSeats > 0;
+    }
+}
@@ -33,7 +33,8 @@ public class FavoriteRidesController {
      * Gibt alle Favoriten des aktuellen Benutzers zurück.
      */
     public List<Ride> getFavorites() {
-        return favoriteService.getFavorites();
+        long userId = navigationService.getSessionUserId();
+        return favoriteService.getFavorites(userId);
     }
 
     /**
@@ -58,6 +59,6 @@ public class FavoriteRidesController {
      * Gibt die Benutzer-Initialen für den Header zurück.
      */
     public String getUserInitials() {
-        return sessionService.getCurrentUserInitials();
+        return sessionService.getUserInitials(navigationService.getSessionToken());
     }
 }
@@ -1,12 +1,16 @@
 package de.hnu.controller;
 
 import de.hnu.model.Ride;
+import de.hnu.service.RideSearchQuery;
 import de.hnu.service.RideService;
 import de.hnu.service.SessionService;
 import de.hnu.ui.NavigationService;
 import de.hnu.ui.NavigationService.ViewType;
 
-import java.util.List;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 
 /**
  * Controller für die "Find a Ride" View (Page 115).
@@ -37,11 +41,35 @@ public class FindRideController {
      *
      * @param from Startort
      * @param to Zielort
+     * @param date Abfahrtsdatum (kann null sein)
+     * @param time Abfahrtszeit als Text, z.B. "6" oder "06:30" (kann leer sein)
      */
-    public void onFindRideClicked(String from, String to) {
-        // Suche durchführen und zu Ergebnissen navigieren
+    public void onFindRideClicked(String from, String to, LocalDate date, String time) {
+        // Suche zu den Ergebnissen weiterreichen
         // Die Suchergebnisse werden in AvailableRidesController geladen
-        navigationService.navigateTo(ViewType.AVAILABLE_RIDES);
+        RideSearchQuery query = new RideSearchQuery(from, to, date, parseTime(time));
+        navigationService.navigateTo(ViewType.AVAILABLE_RIDES, query);
+    }
+
+    /**
+     * Liest die Uhrzeit aus dem Freitextfeld.
+     * ISO 9241-11 Effizienz: Sowohl "6" als auch "6:30" werden akzeptiert.
+     *
+     * @return die Uhrzeit oder null, wenn leer oder nicht lesbar
+     */
+    private LocalTime parseTime(String time) {
+        if (time == null || time.isBlank()) {
+            return null;
+        }
+        String value = time.trim();
+        try {
+            if (value.matches("\\d{1,2}")) {
+                return LocalTime.of(Integer.parseInt(value), 0);
+            }
+            return LocalTime.parse(value, DateTimeFormatter.ofPattern("H:mm"));
+        } catch (DateTimeException e) {
+            return null;
+        }
     }
 
     /**
@@ -56,6 +84,6 @@ public class FindRideController {
      * Gibt die Benutzer-Initialen für den Header zurück.
      */
     public String getUserInitials() {
-        return sessionService.getCurrentUserInitials();
+        return sessionService.getUserInitials(navigationService.getSessionToken());
     }
 }
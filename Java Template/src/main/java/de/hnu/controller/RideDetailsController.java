@@ -3,15 +3,21 @@ package de.hnu.controller;
 import de.hnu.model.Ride;
 import de.hnu.service.BookingService;
 import de.hnu.service.FavoriteService;
+import de.hnu.service.SeatHold;
+import de.hnu.service.SeatPolicy;
+import de.hnu.service.WaitlistEntry;
 import de.hnu.service.SessionService;
 import de.hnu.ui.NavigationService;
 import de.hnu.ui.NavigationService.ViewType;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controller für die "Ride Details" View (Page 123).
  *
  * Verantwortlich für:
  * - Anzeige der Fahrt-Details
+ * - Reservierung eines Platzes, solange die Details offen sind
  * - Buchung der Fahrt
  * - Hinzufügen zu Favoriten
  */
@@ -22,6 +28,7 @@ public class RideDetailsController {
     private final NavigationService navigationService;
     private final SessionService sessionService;
     private final Ride currentRide;
+    private final SeatHold seatHold; // null, wenn beim Öffnen kein Platz frei war
 
     public RideDetailsController(BookingService bookingService,
                                  FavoriteService favoriteService,
@@ -33,6 +40,13 @@ public class RideDetailsController {
         this.navigationService = navigationService;
         this.sessionService = sessionService;
         this.currentRide = ride;
+        // Platz reservieren, damit er beim Klick auf "Book this ride" noch frei ist
+        this.seatHold = bookingService.holdSeats(navigationService.getSessionUserId(),
+                ride, 1, BookingService.DEFAULT_HOLD_TIME);
+        // Beim Verlassen der Details (egal wie) sofort freigeben, nicht erst nach Ablauf
+        if (seatHold != null) {
+            navigationService.setOnLeave(() -> bookingService.releaseHold(seatHold));
+        }
     }
 
     /**
@@ -42,20 +56,68 @@ public class RideDetailsController {
         return currentRide;
     }
 
+    /**
+     * Prüft ob für den Benutzer noch ein Platz reserviert ist.
+     */
+    public boolean isSeatHeld() {
+        return seatHold != null && seatHold.isHeld();
+    }
+
+    /**
+     * Gibt die Plätze zurück, die dieser Benutzer buchen kann: die freien Plätze der
+     * Fahrt plus die für ihn reservierten (die im Sitzzähler schon abgezogen sind).
+     */
+    public int getBookableSeats() {
+        int held = isSeatHeld() ? seatHold.getSeats() : 0;
+        return currentRide.getAvailableSeats() + held;
+    }
+
+    /**
+     * Gibt die Reservierungsdauer in Minuten für die Anzeige zurück.
+     */
+    public long getHoldMinutes() {
+        return BookingService.DEFAULT_HOLD_TIME.toMinutes();
+    }
+
     /**
      * Wird aufgerufen wenn "Book this ride" geklickt wird.
-     * Bucht die Fahrt und navigiert zur Bestätigung.
+     * Bestätigt die Reservierung mit der gewünschten Anzahl Plätze (oder bucht neu,
+     * falls sie abgelaufen ist) und navigiert zur Bestätigung.
      *
-     * ISO 9241-11 Effektivität: Hauptaufgabe (Buchung) wird abgeschlossen.
-     *
-     * @return true wenn Buchung erfolgreich
+     * @param seats gewünschte Anzahl Plätze
+     * @param acceptFewer true wenn auch weniger Plätze gebucht werden dürfen
+     * @return gebuchte Plätze; ohne Buchung auch, ob die Fahrt ausgebucht ist oder nur
+     *         zu wenige Plätze frei sind (die Reservierung bleibt dann bestehen)
+     * @throws IllegalStateException wenn Buchungen gerade nicht gespeichert werden können
      */
-    public boolean onBookRideClicked() {
-        boolean success = bookingService.bookRide(currentRide);
-        if (success) {
+    public BookingResult onBookRideClicked(int seats, boolean acceptFewer) {
+        SeatPolicy policy = acceptFewer ? SeatPolicy.BEST_EFFORT : SeatPolicy.ALL_OR_NOTHING;
+        long userId = navigationService.getSessionUserId();
+
+        // Bei zu wenig Plätzen bleibt die Reservierung bestehen
+        int booked = seatHold != null ? bookingService.confirmHold(seatHold, seats, policy) : 0;
+        if (booked == 0 && !isSeatHeld()) {
+            // Reservierung abgelaufen oder nie angelegt
+            booked = bookingService.bookRide(userId, currentRide, seats, policy);
+        }
+        if (booked > 0) {
             navigationService.navigateTo(ViewType.BOOKING_CONFIRMATION);
+            return new BookingResult(booked, 0);
         }
-        return success;
+        return new BookingResult(0, getBookableSeats());
+    }
+
+    /**
+     * Setzt den Benutzer auf die Warteliste, wenn die Fahrt ausgebucht ist
+     * (siehe {@link BookingResult#isRideFull()}).
+     *
+     * @return wird mit der Fahrt abgeschlossen, sobald ein Platz gebucht wurde
+     *         (nicht im JavaFX-Thread)
+     */
+    public CompletableFuture<Ride> onJoinWaitlistClicked() {
+        WaitlistEntry entry = bookingService.joinWaitlist(
+                navigationService.getSessionUserId(), currentRide);
+        return entry.assignment();
     }
 
     /**
@@ -67,20 +129,21 @@ public class RideDetailsController {
      * @return true wenn erfolgreich hinzugefügt, false wenn bereits Favorit
      */
     public boolean onFavoriteClicked() {
-        return favoriteService.addFavorite(currentRide);
+        return favoriteService.addFavorite(navigationService.getSessionUserId(), currentRide);
     }
 
     /**
      * Prüft ob die aktuelle Fahrt bereits ein Favorit ist.
      */
     public boolean isFavorite() {
-        return favoriteService.isFavorite(currentRide);
+        return favoriteService.isFavorite(navigationService.getSessionUserId(), currentRide);
     }
 
     /**
      * Navigiert zurück zur vorherigen View.
      */
     public void onBackClicked() {
+        // Die Reservierung gibt die Navigation beim Verlassen frei (siehe Konstruktor)
         navigationService.navigateBack();
     }
 
@@ -88,6 +151,6 @@ public class RideDetailsController {
      * Gibt die Benutzer-Initialen für den Header zurück.
      */
     public String getUserInitials() {
-        return sessionService.getCurrentUserInitials();
+        return sessionService.getUserInitials(navigationService.getSessionToken());
     }
 }
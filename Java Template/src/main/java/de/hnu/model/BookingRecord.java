@@ -0,0 +1,108 @@
+package de.hnu.model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+
+/**
+ * Model-Klasse für einen persistierten Buchungsvorgang.
+ * JPA Entity, wird vom Write-Behind der In-Memory-Buchungen geschrieben.
+ *
+ * Die ID ist die Sequenznummer des Vorgangs (keine generierte ID), damit ein
+ * nach einem Absturz erneut geschriebener Vorgang nicht doppelt gespeichert wird.
+ */
+@Entity
+public class BookingRecord {
+
+    public enum Type {
+        BOOKED,
+        CANCELLED
+    }
+
+    @Id
+    private long sequence;
+
+    @Enumerated(EnumType.STRING)
+    private Type type;
+
+    private long userId;
+    private long rideId;
+    private int seats;
+    private Instant createdAt;
+
+    public BookingRecord() {
+    }
+
+    public BookingRecord(long sequence, Type type, long userId, long rideId, int seats, Instant createdAt) {
+        this.sequence = sequence;
+        this.type = type;
+        this.userId = userId;
+        this.rideId = rideId;
+        this.seats = seats;
+        this.createdAt = createdAt;
+    }
+
+    // Getter und Setter
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public long getRideId() {
+        return rideId;
+    }
+
+    public void setRideId(long rideId) {
+        this.rideId = rideId;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public void setSeats(int seats) {
+        this.seats = seats;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingRecord{" +
+                "sequence=" + sequence +
+                ", type=" + type +
+                ", userId=" + userId +
+                ", rideId=" + rideId +
+                ", seats=" + seats +
+                '}';
+    }
+}
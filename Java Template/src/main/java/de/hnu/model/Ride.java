@@ -1,5 +1,7 @@
 package de.hnu.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -8,6 +10,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
 
 /**
  * Model-Klasse für eine Fahrt (Ride).
@@ -18,6 +21,23 @@ import jakarta.persistence.ManyToOne;
 @Entity
 public class Ride {
 
+    // Atomarer Zugriff auf availableSeats: der Zähler allein kann nie überbucht werden.
+    // BookingService ruft die Methoden trotzdem unter der Fahrt-Sperre auf, damit
+    // Plätze, Buchungsverlauf und Write-Behind zusammen geändert werden.
+    private static final VarHandle AVAILABLE_SEATS;
+    private static final VarHandle HELD_SEATS;
+
+    static {
+        try {
+            AVAILABLE_SEATS = MethodHandles.lookup()
+                    .findVarHandle(Ride.class, "availableSeats", int.class);
+            HELD_SEATS = MethodHandles.lookup()
+                    .findVarHandle(Ride.class, "heldSeats", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @Id
     @GeneratedValue
     private long id;
@@ -34,9 +54,13 @@ public class Ride {
     private int distanceKm;
     private LocalDate date;
     private LocalTime time;
-    private int availableSeats;
+    private volatile int availableSeats;
     private int driverRating; // 1-5 Sterne
 
+    // Davon zeitlich begrenzt reserviert (SeatHold); nur im Speicher, nach einem Neustart frei
+    @Transient
+    private volatile int heldSeats;
+
     @ManyToOne
     private User driver; // Beziehung zum Fahrer
 
@@ -123,6 +147,108 @@ public class Ride {
         this.availableSeats = availableSeats;
     }
 
+    /**
+     * Reserviert Plätze atomar (Compare-and-Set).
+     * Gleichzeitige Aufrufe können so nie mehr Plätze vergeben als vorhanden sind,
+     * auch ohne äußere Sperre.
+     *
+     * @param seats Anzahl der Plätze (mindestens 1)
+     * @return true wenn reserviert, false wenn nicht genug Plätze frei sind
+     */
+    public boolean tryReserveSeats(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + seats);
+        }
+        int current;
+        do {
+            current = availableSeats;
+            if (current < seats) {
+                return false;
+            }
+        } while (!AVAILABLE_SEATS.compareAndSet(this, current, current - seats));
+        return true;
+    }
+
+    /**
+     * Reserviert atomar so viele Plätze wie frei sind, höchstens {@code maxSeats}.
+     *
+     * @return Anzahl der reservierten Plätze (0 wenn ausgebucht)
+     */
+    public int tryReserveUpTo(int maxSeats) {
+        if (maxSeats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + maxSeats);
+        }
+        int current;
+        int taken;
+        do {
+            current = availableSeats;
+            taken = Math.min(current, maxSeats);
+            if (taken <= 0) {
+                return 0;
+            }
+        } while (!AVAILABLE_SEATS.compareAndSet(this, current, current - taken));
+        return taken;
+    }
+
+    /**
+     * Wie {@link #tryReserveSeats(int)}, zählt die Plätze aber als zeitlich begrenzte
+     * Reservierung. Sie bleiben abgezogen, bis {@link #endHold(int)} aufgerufen wird.
+     */
+    public boolean tryHoldSeats(int seats) {
+        if (!tryReserveSeats(seats)) {
+            return false;
+        }
+        HELD_SEATS.getAndAdd(this, seats);
+        return true;
+    }
+
+    /**
+     * Beendet eine Reservierung. Die Plätze bleiben abgezogen (z.B. als Buchung);
+     * zum Freigeben zusätzlich {@link #releaseSeats(int)} aufrufen.
+     *
+     * @throws IllegalStateException wenn weniger Plätze reserviert sind
+     */
+    public void endHold(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + seats);
+        }
+        int current;
+        do {
+            current = heldSeats;
+            if (current < seats) {
+                throw new IllegalStateException("Nur " + current + " Plätze reserviert, nicht " + seats);
+            }
+        } while (!HELD_SEATS.compareAndSet(this, current, current - seats));
+    }
+
+    // Reservierungen und der Wert ohne sie sind keine Bean-Properties: Sie gehören nicht
+    // ins JSON der REST-Schnittstelle und dürfen dort auch nicht gesetzt werden.
+
+    /**
+     * Anzahl der zeitlich begrenzt reservierten Plätze (in den freien Plätzen schon abgezogen).
+     */
+    public int heldSeats() {
+        return heldSeats;
+    }
+
+    /**
+     * Freie Plätze ohne Berücksichtigung der Reservierungen, also nur abzüglich echter
+     * Buchungen. Dieser Wert wird gespeichert: Reservierungen überleben keinen Neustart.
+     */
+    public int availableSeatsWithoutHolds() {
+        return availableSeats + heldSeats;
+    }
+
+    /**
+     * Gibt reservierte Plätze atomar wieder frei.
+     */
+    public void releaseSeats(int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + seats);
+        }
+        AVAILABLE_SEATS.getAndAdd(this, seats);
+    }
+
     public int getDriverRating() {
         return driverRating;
     }
@@ -1,5 +1,7 @@
 package de.hnu.model;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,6 +13,7 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Model-Klasse für einen Benutzer.
@@ -22,6 +25,18 @@ import jakarta.persistence.Table;
 @Table(name = "AppUser") // "User" ist oft ein reserviertes Keyword in SQL
 public class User {
 
+    // Atomares Hochzählen der Version, auch bei gleichzeitigen Änderungen
+    private static final VarHandle VERSION;
+
+    static {
+        try {
+            VERSION = MethodHandles.lookup()
+                    .findVarHandle(User.class, "version", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     @Id
     @GeneratedValue
     private long id;
@@ -40,6 +55,10 @@ public class User {
     @OneToMany(fetch=FetchType.LAZY, cascade=CascadeType.PERSIST)
     private List<Ride> bookedRides; // Gebuchte Fahrten für "Previous Rides"
 
+    // Wird bei jeder Änderung der Anzeigedaten erhöht, damit Caches veraltete Werte erkennen
+    @Transient
+    private volatile int version;
+
     public User() {
         this.favorites = new ArrayList<>();
         this.bookedRides = new ArrayList<>();
@@ -70,6 +89,7 @@ public class User {
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        VERSION.getAndAdd(this, 1);
     }
 
     public String getLastName() {
@@ -78,6 +98,7 @@ public class User {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        VERSION.getAndAdd(this, 1);
     }
 
     public double getRating() {
@@ -86,6 +107,15 @@ public class User {
 
     public void setRating(double rating) {
         this.rating = rating;
+        VERSION.getAndAdd(this, 1);
+    }
+
+    /**
+     * Änderungszähler für Name und Rating (nicht persistiert).
+     * Bewusst kein Getter: Der Zähler ist intern und gehört nicht ins JSON von /users.
+     */
+    public int version() {
+        return version;
     }
 
     public List<Ride> getFavorites() {
@@ -0,0 +1,85 @@
+package de.hnu.repository;
+
+import de.hnu.util.IntList;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wörterbuch-Kodierung der Städtenamen für den spaltenorientierten Speicher.
+ *
+ * Jeder unterschiedliche Name bekommt einmalig eine fortlaufende int-ID, sodass
+ * die Spalten nur noch ints statt String-Referenzen enthalten. Auch bei sehr
+ * vielen Fahrten gibt es nur wenige hundert Städte.
+ *
+ * Thread-Sicherheit: ein Schreiber, beliebig viele Leser.
+ */
+class CityDictionary {
+
+    static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[16];
+    // Gefaltete Namen (siehe SearchKeys) für die Teilstring-Suche über Städte
+    private volatile String[] keys = new String[16];
+    private volatile int size;
+
+    /**
+     * Gibt die ID einer Stadt zurück und legt sie bei Bedarf an (nur für den Schreiber).
+     */
+    int encode(String city) {
+        String name = city == null ? "" : city;
+        Integer existing = ids.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size;
+        String[] n = names;
+        String[] k = keys;
+        if (id == n.length) {
+            n = Arrays.copyOf(n, id * 2);
+            k = Arrays.copyOf(k, id * 2);
+            names = n;
+            keys = k;
+        }
+        n[id] = name;
+        k[id] = SearchKeys.forStoredText(name);
+        size = id + 1;
+        ids.put(name, id);
+        return id;
+    }
+
+    /**
+     * Gibt die ID einer bekannten Stadt zurück oder {@link #UNKNOWN}.
+     */
+    int lookup(String city) {
+        Integer id = ids.get(city == null ? "" : city);
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Gibt die IDs aller Städte zurück, deren Name den Suchbegriff enthält
+     * (gefaltet wie die Fahrtsuche).
+     */
+    int[] matching(String query) {
+        int n = size;
+        String[] k = keys;
+        String q = SearchKeys.forQuery(query);
+        IntList result = new IntList();
+        for (int id = 0; id < n; id++) {
+            if (k[id].contains(q)) {
+                result.add(id);
+            }
+        }
+        return result.toArray();
+    }
+
+    String name(int id) {
+        return names[id];
+    }
+
+    int size() {
+        return size;
+    }
+}
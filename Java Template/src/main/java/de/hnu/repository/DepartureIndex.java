@@ -0,0 +1,75 @@
+package de.hnu.repository;
+
+import de.hnu.util.IntList;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sortierter Index über die Abfahrtszeit für Zeitfenster-Suchen.
+ *
+ * Schlüssel ist die gepackte Abfahrt aus {@link RideColumns#packDeparture}
+ * (Tag * 1440 + Minute des Tages). Die Einträge sind damit nach Tag und innerhalb
+ * des Tages nach Uhrzeit sortiert, und "morgen zwischen 6 und 9 Uhr" ist ein
+ * Bereichs-Scan über wenige Schlüssel statt eines Filters über alle Fahrten.
+ *
+ * Thread-Sicherheit: ein Schreiber, beliebig viele Leser
+ * (die Skip-List ist nebenläufig, die Posting-Listen siehe {@link IntList}).
+ */
+class DepartureIndex {
+
+    private final NavigableMap<Long, IntList> rowsByDeparture = new ConcurrentSkipListMap<>();
+
+    void add(int row, long departure) {
+        if (departure == RideColumns.NO_DEPARTURE) {
+            return;
+        }
+        IntList rows = rowsByDeparture.get(departure);
+        if (rows == null) {
+            rows = new IntList(2);
+            rows.add(row);
+            rowsByDeparture.put(departure, rows);
+        } else {
+            rows.add(row);
+        }
+    }
+
+    /**
+     * Gibt alle Zeilen unterhalb von {@code limit} mit Abfahrt im Intervall
+     * [from, to] zurück, sortiert nach Abfahrt.
+     */
+    int[] range(long from, long to, int limit) {
+        if (from > to) {
+            return new int[0];
+        }
+        IntList result = new IntList();
+        for (Map.Entry<Long, IntList> entry
+                : rowsByDeparture.subMap(from, true, to, true).entrySet()) {
+            IntList rows = entry.getValue();
+            // Größe vor dem Array lesen (siehe IntList)
+            int n = rows.size();
+            int[] values = rows.elements();
+            for (int i = 0; i < n && values[i] < limit; i++) {
+                result.add(values[i]);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Behält von {@code departureRows} nur die Zeilen, die auch in den
+     * aufsteigend sortierten {@code allowedRows} enthalten sind (Reihenfolge bleibt).
+     */
+    static int[] retain(int[] departureRows, int[] allowedRows) {
+        int[] result = new int[Math.min(departureRows.length, allowedRows.length)];
+        int count = 0;
+        for (int row : departureRows) {
+            if (Arrays.binarySearch(allowedRows, row) >= 0) {
+                result[count++] = row;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,56 @@
+package de.hnu.repository;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-sichere ID-Vergabe für die In-Memory-Repositories.
+ *
+ * Ersetzt das bisherige {@code max() + 1} über alle Einträge: Die Sequenz merkt sich
+ * die höchste bekannte ID und vergibt neue IDs in O(1). Für Massenimporte kann ein
+ * zusammenhängender Block von IDs auf einmal reserviert werden.
+ */
+public class IdSequence {
+
+    private final AtomicLong lastId;
+
+    /**
+     * @param lastId höchste bereits vergebene ID (0 wenn noch keine)
+     */
+    public IdSequence(long lastId) {
+        this.lastId = new AtomicLong(lastId);
+    }
+
+    /**
+     * Vergibt die nächste freie ID.
+     */
+    public long next() {
+        return lastId.incrementAndGet();
+    }
+
+    /**
+     * Reserviert einen Block von {@code count} aufeinanderfolgenden IDs.
+     *
+     * @return die erste ID des Blocks; der Block umfasst [erste, erste + count)
+     */
+    public long reserve(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Anzahl darf nicht negativ sein: " + count);
+        }
+        return lastId.getAndAdd(count) + 1;
+    }
+
+    /**
+     * Meldet eine von außen gesetzte ID (z.B. Dummy-Daten oder Import),
+     * damit sie nicht erneut vergeben wird.
+     */
+    public void observe(long id) {
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    /**
+     * Gibt die zuletzt vergebene bzw. höchste bekannte ID zurück.
+     */
+    public long current() {
+        return lastId.get();
+    }
+}
@@ -0,0 +1,241 @@
+package de.hnu.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only Journal mit Snapshot für den dauerhaften Modus der In-Memory-Repositories.
+ *
+ * Jede Änderung wird als binärer Datensatz an eine memory-mapped Datei angehängt
+ * ({@code <name>.journal}); das kostet nur einen Speicher-Kopiervorgang statt eines
+ * Datenbank-Commits. Periodisch wird der gesamte Bestand kompakt in
+ * {@code <name>.snapshot} geschrieben und das Journal geleert. Beim Neustart wird der
+ * Snapshot eingeblendet und nur der Rest des Journals nachgespielt.
+ *
+ * Datensatz-Format: {@code [int Länge][int Generation][byte Typ][Nutzdaten][int CRC32]}.
+ * Die Länge wird zuletzt geschrieben, ein abgebrochener Schreibvorgang oder ein
+ * CRC-Fehler beendet das Nachspielen. Die Generation wird beim Leeren erhöht, damit alte
+ * Datensätze hinter dem Schreibzeiger nicht erneut gelesen werden.
+ *
+ * Thread-sicher: Schreibende Methoden sperren das Journal selbst. So können Sitz-Änderungen
+ * angehängt werden, ohne die Sperre des Repositorys zu nehmen. Wer mehrere Schritte
+ * zusammen ausführen muss (z.B. Bestand lesen und als Snapshot schreiben), synchronisiert
+ * auf das Journal-Objekt.
+ */
+class MappedJournal {
+
+    /**
+     * Verarbeitet einen gelesenen Datensatz beim Laden.
+     */
+    interface RecordHandler {
+        void accept(byte type, ByteBuffer payload);
+    }
+
+    private static final int MAGIC = 0x434A524E; // "CJRN"
+    private static final int HEADER_SIZE = 8;    // Magic + Generation
+    private static final int RECORD_OVERHEAD = 4 + 4 + 1 + 4;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    // Journal wird kompaktiert, sobald es diese Größe überschreitet
+    private static final int CHECKPOINT_THRESHOLD = 64 << 20;
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int generation;
+    private int position;
+
+    MappedJournal(Path directory, String name) {
+        try {
+            Files.createDirectories(directory);
+            this.journalFile = directory.resolve(name + ".journal");
+            this.snapshotFile = directory.resolve(name + ".snapshot");
+            boolean exists = Files.exists(journalFile) && Files.size(journalFile) >= HEADER_SIZE;
+
+            this.channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = Math.max(channel.size(), INITIAL_CAPACITY);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+            if (exists) {
+                if (buffer.getInt(0) != MAGIC) {
+                    throw new IllegalStateException("Keine Journal-Datei: " + journalFile);
+                }
+                this.generation = buffer.getInt(4);
+            } else {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, generation);
+            }
+            this.position = HEADER_SIZE;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal kann nicht geöffnet werden: " + name, e);
+        }
+    }
+
+    /**
+     * Prüft ob bereits Daten vorhanden sind (Snapshot oder Journal-Einträge).
+     */
+    boolean hasData() {
+        return Files.exists(snapshotFile) || buffer.getInt(HEADER_SIZE) > 0;
+    }
+
+    /**
+     * Lädt erst den Snapshot und spielt dann das Journal nach.
+     * Danach steht der Schreibzeiger hinter dem letzten gültigen Datensatz.
+     */
+    void load(RecordHandler handler) {
+        if (Files.exists(snapshotFile)) {
+            try (FileChannel snapshotChannel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+                MappedByteBuffer snapshot = snapshotChannel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, snapshotChannel.size());
+                if (snapshot.getInt(0) != MAGIC) {
+                    throw new IllegalStateException("Keine Snapshot-Datei: " + snapshotFile);
+                }
+                replay(snapshot, snapshot.getInt(4), handler);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Snapshot kann nicht gelesen werden", e);
+            }
+        }
+        position = replay(buffer, generation, handler);
+    }
+
+    /**
+     * Hängt einen Datensatz an das Journal an.
+     */
+    synchronized void append(byte type, byte[] payload) {
+        int length = 4 + 1 + payload.length;
+        ensureCapacity(position + RECORD_OVERHEAD + payload.length + 4);
+
+        int start = position;
+        buffer.putInt(start + 4, generation);
+        buffer.put(start + 8, type);
+        buffer.put(start + 9, payload);
+        buffer.putInt(start + 9 + payload.length, crc(buffer, start + 4, length));
+        // Nächsten Eintrag als Ende markieren, dann die Länge als letztes schreiben
+        buffer.putInt(start + RECORD_OVERHEAD + payload.length, 0);
+        buffer.putInt(start, length);
+        position = start + RECORD_OVERHEAD + payload.length;
+    }
+
+    /**
+     * Prüft ob das Journal groß genug für eine Kompaktierung ist.
+     */
+    synchronized boolean needsCheckpoint() {
+        return position > CHECKPOINT_THRESHOLD;
+    }
+
+    /**
+     * Schreibt alle übergebenen Datensätze als neuen Snapshot und leert das Journal.
+     *
+     * Der Snapshot wird erst in eine temporäre Datei geschrieben und dann atomar
+     * umbenannt. Stürzt der Prozess danach vor dem Leeren ab, werden die Journal-Einträge
+     * beim Start erneut nachgespielt; die Repositories behandeln das idempotent.
+     */
+    synchronized void checkpoint(byte type, Iterable<byte[]> records) {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC).putInt(0).flip();
+            writeFully(out, header);
+
+            for (byte[] payload : records) {
+                int length = 4 + 1 + payload.length;
+                ByteBuffer record = ByteBuffer.allocate(RECORD_OVERHEAD + payload.length);
+                record.putInt(length).putInt(0).put(type).put(payload);
+                record.putInt(crc(record, 4, length));
+                record.flip();
+                writeFully(out, record);
+            }
+            out.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Snapshot kann nicht geschrieben werden", e);
+        }
+
+        try {
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Snapshot kann nicht übernommen werden", e);
+        }
+
+        // Journal leeren: neue Generation, alte Einträge werden damit ungültig
+        generation++;
+        buffer.putInt(HEADER_SIZE, 0);
+        buffer.putInt(4, generation);
+        buffer.force();
+        position = HEADER_SIZE;
+    }
+
+    /**
+     * Schreibt das Journal auf die Platte und schließt die Datei.
+     */
+    synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal kann nicht geschlossen werden", e);
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        long capacity = buffer.capacity();
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        try {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Journal kann nicht vergrößert werden", e);
+        }
+    }
+
+    /**
+     * Spielt alle gültigen Datensätze ab {@link #HEADER_SIZE} nach.
+     *
+     * @return Position hinter dem letzten gültigen Datensatz
+     */
+    private static int replay(ByteBuffer data, int generation, RecordHandler handler) {
+        int pos = HEADER_SIZE;
+        while (pos + 4 <= data.limit()) {
+            int length = data.getInt(pos);
+            if (length < 5 || pos + 4 + length + 4 > data.limit()) {
+                break;
+            }
+            if (data.getInt(pos + 4) != generation
+                    || data.getInt(pos + 4 + length) != crc(data, pos + 4, length)) {
+                break;
+            }
+            ByteBuffer payload = data.slice(pos + 9, length - 5);
+            handler.accept(data.get(pos + 8), payload);
+            pos += 4 + length + 4;
+        }
+        return pos;
+    }
+
+    private static int crc(ByteBuffer data, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+import de.hnu.model.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Binäre Kodierung der Datensätze für das {@link MappedJournal}.
+ *
+ * Bewusst ohne Java-Serialisierung: feste Feldreihenfolge, Strings als
+ * UTF-8 mit Längenpräfix, Datum/Uhrzeit als Zahlen.
+ */
+final class RecordCodec {
+
+    // Datensatz-Typen im Journal
+    static final byte SAVE = 1;
+    static final byte SEAT_CHANGE = 2;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final long NO_TIME = -1;
+
+    private RecordCodec() {
+    }
+
+    static byte[] encodeRide(Ride ride) {
+        byte[] driverName = utf8(ride.getDriverName());
+        byte[] origin = utf8(ride.getOrigin());
+        byte[] destination = utf8(ride.getDestination());
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + stringSize(driverName) + stringSize(origin)
+                + stringSize(destination) + 4 + 8 + 8 + 4 + 4);
+        buffer.putLong(ride.getId());
+        putString(buffer, driverName);
+        putString(buffer, origin);
+        putString(buffer, destination);
+        buffer.putInt(ride.getDistanceKm());
+        buffer.putLong(ride.getDate() != null ? ride.getDate().toEpochDay() : NO_DATE);
+        buffer.putLong(ride.getTime() != null ? ride.getTime().toNanoOfDay() : NO_TIME);
+        // Reservierungen gehen bei einem Neustart verloren, also ohne sie speichern
+        buffer.putInt(ride.availableSeatsWithoutHolds());
+        buffer.putInt(ride.getDriverRating());
+        return buffer.array();
+    }
+
+    static Ride decodeRide(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String driverName = getString(buffer);
+        String origin = getString(buffer);
+        String destination = getString(buffer);
+        int distanceKm = buffer.getInt();
+        long epochDay = buffer.getLong();
+        long nanoOfDay = buffer.getLong();
+        int availableSeats = buffer.getInt();
+        int driverRating = buffer.getInt();
+        return new Ride(id, driverName, origin, destination, distanceKm,
+                epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null,
+                nanoOfDay != NO_TIME ? LocalTime.ofNanoOfDay(nanoOfDay) : null,
+                availableSeats, driverRating);
+    }
+
+    static byte[] encodeSeatChange(long rideId, int availableSeats) {
+        return ByteBuffer.allocate(12).putLong(rideId).putInt(availableSeats).array();
+    }
+
+    static byte[] encodeUser(User user) {
+        byte[] firstName = utf8(user.getFirstName());
+        byte[] lastName = utf8(user.getLastName());
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + stringSize(firstName) + stringSize(lastName) + 8);
+        buffer.putLong(user.getId());
+        putString(buffer, firstName);
+        putString(buffer, lastName);
+        buffer.putDouble(user.getRating());
+        return buffer.array();
+    }
+
+    static User decodeUser(ByteBuffer buffer) {
+        long id = buffer.getLong();
+        String firstName = getString(buffer);
+        String lastName = getString(buffer);
+        double rating = buffer.getDouble();
+        return new User(id, firstName, lastName, rating);
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(byte[] value) {
+        return 4 + (value == null ? 0 : value.length);
+    }
+
+    /**
+     * Länge -1 steht für null.
+     */
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
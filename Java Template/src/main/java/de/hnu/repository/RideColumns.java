@@ -0,0 +1,217 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+import de.hnu.util.IntList;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * Spaltenorientierter Speicher (Struct of Arrays) für scan-lastige Abfragen.
+ *
+ * Hält die filterbaren Felder aller Fahrten in zusammenhängenden primitiven Arrays:
+ * Distanz, Plätze und Bewertung als int, die Abfahrt gepackt als long (Minuten seit
+ * 1970-01-01 in lokaler Zeit) und Start/Ziel als Wörterbuch-IDs. Filter und
+ * Aggregationen laufen so linear über den Speicher, statt für jede Fahrt mehrere
+ * Objekte zu dereferenzieren. Die {@link Ride}-Objekte bleiben die eigentlichen
+ * Datensätze und werden nur für die Treffer geholt.
+ *
+ * Thread-Sicherheit: ein Schreiber (vom Repository synchronisiert), beliebig viele
+ * Leser. Leser übergeben die Zeilenanzahl ihres Snapshots. Ausnahme sind die freien
+ * Plätze: {@link #updateSeats(int, Ride)} darf von beliebigen Threads ohne Sperre
+ * aufgerufen werden.
+ */
+class RideColumns {
+
+    // Volatile Schreibzugriffe auf einzelne Plätze-Einträge
+    private static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /** Abfahrt unbekannt (Fahrt ohne Datum). */
+    static final long NO_DEPARTURE = Long.MIN_VALUE;
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * Alle Spalten werden gemeinsam veröffentlicht, damit ein Leser nie
+     * Arrays unterschiedlicher Länge kombiniert.
+     */
+    private static final class Columns {
+        final int[] distanceKm;
+        final int[] availableSeats;
+        final int[] driverRating;
+        final long[] departure;
+        final int[] originId;
+        final int[] destinationId;
+
+        Columns(int capacity) {
+            this.distanceKm = new int[capacity];
+            this.availableSeats = new int[capacity];
+            this.driverRating = new int[capacity];
+            this.departure = new long[capacity];
+            this.originId = new int[capacity];
+            this.destinationId = new int[capacity];
+        }
+
+        Columns(Columns old, int capacity) {
+            this.distanceKm = Arrays.copyOf(old.distanceKm, capacity);
+            this.availableSeats = Arrays.copyOf(old.availableSeats, capacity);
+            this.driverRating = Arrays.copyOf(old.driverRating, capacity);
+            this.departure = Arrays.copyOf(old.departure, capacity);
+            this.originId = Arrays.copyOf(old.originId, capacity);
+            this.destinationId = Arrays.copyOf(old.destinationId, capacity);
+        }
+    }
+
+    private final CityDictionary cities;
+    private volatile Columns columns = new Columns(16);
+
+    /**
+     * @param cities Wörterbuch der Städte, das auch die Routen-Indizes nutzen
+     */
+    RideColumns(CityDictionary cities) {
+        this.cities = cities;
+    }
+
+    /**
+     * Übernimmt die Felder einer Fahrt in die nächste Zeile.
+     * Start und Ziel sind bereits als Wörterbuch-IDs kodiert.
+     *
+     * @return true wenn die Spalten dafür vergrößert wurden; der Aufrufer muss dann
+     *         die Plätze der vorhandenen Zeilen mit {@link #updateSeats(int, Ride)}
+     *         nachziehen, da sie während des Kopierens geändert worden sein können
+     */
+    boolean add(int row, Ride ride, int originId, int destinationId) {
+        Columns c = columns;
+        boolean grown = false;
+        if (row == c.distanceKm.length) {
+            c = new Columns(c, row * 2);
+            columns = c;
+            grown = true;
+        }
+        c.distanceKm[row] = ride.getDistanceKm();
+        c.availableSeats[row] = ride.getAvailableSeats();
+        c.driverRating[row] = ride.getDriverRating();
+        c.departure[row] = packDeparture(ride.getDate(), ride.getTime());
+        c.originId[row] = originId;
+        c.destinationId[row] = destinationId;
+        return grown;
+    }
+
+    /**
+     * Überträgt geänderte Plätze einer bereits gespeicherten Fahrt (nur beim Laden).
+     */
+    void updateSeats(int row, int availableSeats) {
+        columns.availableSeats[row] = availableSeats;
+    }
+
+    /**
+     * Überträgt den aktuellen Sitzzähler einer Fahrt, ohne Sperre.
+     *
+     * Nach dem Schreiben wird geprüft, ob der Zähler unverändert und das Array noch
+     * aktuell ist; sonst wird wiederholt. Ein Aufrufer mit veraltetem Wert überschreibt
+     * so nie dauerhaft einen neueren, und ein gleichzeitiges Vergrößern verliert nichts.
+     */
+    void updateSeats(int row, Ride ride) {
+        while (true) {
+            Columns c = columns;
+            int availableSeats = ride.getAvailableSeats();
+            INT_ARRAY.setVolatile(c.availableSeats, row, availableSeats);
+            if (c == columns && ride.getAvailableSeats() == availableSeats) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gibt alle Zeilen unterhalb von {@code limit} zurück, die den Filter erfüllen.
+     */
+    int[] filter(RideFilter filter, int limit) {
+        Columns c = columns;
+        int originId = resolveCity(filter.origin());
+        int destinationId = resolveCity(filter.destination());
+        if (originId == CityDictionary.UNKNOWN || destinationId == CityDictionary.UNKNOWN) {
+            return new int[0];
+        }
+
+        IntList result = new IntList();
+        for (int row = 0; row < limit; row++) {
+            if (matches(c, row, filter, originId, destinationId)) {
+                result.add(row);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Zählt die passenden Zeilen, ohne Fahrten zu materialisieren.
+     */
+    int count(RideFilter filter, int limit) {
+        Columns c = columns;
+        int originId = resolveCity(filter.origin());
+        int destinationId = resolveCity(filter.destination());
+        if (originId == CityDictionary.UNKNOWN || destinationId == CityDictionary.UNKNOWN) {
+            return 0;
+        }
+
+        int count = 0;
+        for (int row = 0; row < limit; row++) {
+            if (matches(c, row, filter, originId, destinationId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Summiert die freien Plätze der passenden Zeilen.
+     */
+    long sumAvailableSeats(RideFilter filter, int limit) {
+        Columns c = columns;
+        int originId = resolveCity(filter.origin());
+        int destinationId = resolveCity(filter.destination());
+        if (originId == CityDictionary.UNKNOWN || destinationId == CityDictionary.UNKNOWN) {
+            return 0;
+        }
+
+        long sum = 0;
+        for (int row = 0; row < limit; row++) {
+            if (matches(c, row, filter, originId, destinationId)) {
+                sum += c.availableSeats[row];
+            }
+        }
+        return sum;
+    }
+
+    private static boolean matches(Columns c, int row, RideFilter filter,
+                                   int originId, int destinationId) {
+        return c.availableSeats[row] >= filter.minSeats()
+                && c.distanceKm[row] <= filter.maxDistanceKm()
+                && c.driverRating[row] >= filter.minRating()
+                && c.departure[row] >= filter.departureFrom()
+                && c.departure[row] <= filter.departureTo()
+                && (originId == RideFilter.ANY_CITY || c.originId[row] == originId)
+                && (destinationId == RideFilter.ANY_CITY || c.destinationId[row] == destinationId);
+    }
+
+    /**
+     * Städtefilter werden vor dem Scan einmal in Wörterbuch-IDs übersetzt.
+     */
+    private int resolveCity(String city) {
+        return city == null ? RideFilter.ANY_CITY : cities.lookup(city);
+    }
+
+    /**
+     * Packt Datum und Uhrzeit in Minuten seit 1970-01-01 (lokale Zeit).
+     * Die Reihenfolge der gepackten Werte entspricht der zeitlichen Reihenfolge.
+     */
+    static long packDeparture(LocalDate date, LocalTime time) {
+        if (date == null) {
+            return NO_DEPARTURE;
+        }
+        long minuteOfDay = time == null ? 0 : time.getHour() * 60L + time.getMinute();
+        return date.toEpochDay() * MINUTES_PER_DAY + minuteOfDay;
+    }
+}
@@ -0,0 +1,62 @@
+package de.hnu.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filterkriterien für Abfragen über den spaltenorientierten Speicher.
+ *
+ * Unveränderlich; {@link #any()} liefert einen Filter ohne Einschränkung,
+ * die {@code with...}-Methoden liefern eingeschränkte Kopien.
+ * Städte werden exakt (wie gespeichert) verglichen.
+ */
+public record RideFilter(int minSeats,
+                         int maxDistanceKm,
+                         int minRating,
+                         long departureFrom,
+                         long departureTo,
+                         String origin,
+                         String destination) {
+
+    static final int ANY_CITY = -2;
+
+    private static final RideFilter ANY = new RideFilter(
+            Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE,
+            Long.MIN_VALUE, Long.MAX_VALUE, null, null);
+
+    /**
+     * Filter ohne Einschränkung.
+     */
+    public static RideFilter any() {
+        return ANY;
+    }
+
+    public RideFilter withMinSeats(int seats) {
+        return new RideFilter(seats, maxDistanceKm, minRating, departureFrom, departureTo,
+                origin, destination);
+    }
+
+    public RideFilter withMaxDistanceKm(int distanceKm) {
+        return new RideFilter(minSeats, distanceKm, minRating, departureFrom, departureTo,
+                origin, destination);
+    }
+
+    public RideFilter withMinRating(int rating) {
+        return new RideFilter(minSeats, maxDistanceKm, rating, departureFrom, departureTo,
+                origin, destination);
+    }
+
+    /**
+     * Schränkt auf Abfahrten im Intervall [from, to] ein (Minutengenauigkeit).
+     */
+    public RideFilter withDeparture(LocalDateTime from, LocalDateTime to) {
+        return new RideFilter(minSeats, maxDistanceKm, minRating,
+                RideColumns.packDeparture(from.toLocalDate(), from.toLocalTime()),
+                RideColumns.packDeparture(to.toLocalDate(), to.toLocalTime()),
+                origin, destination);
+    }
+
+    public RideFilter withRoute(String origin, String destination) {
+        return new RideFilter(minSeats, maxDistanceKm, minRating, departureFrom, departureTo,
+                origin, destination);
+    }
+}
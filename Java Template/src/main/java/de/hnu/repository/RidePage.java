@@ -0,0 +1,31 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+
+import java.util.List;
+
+/**
+ * Eine Seite von Suchergebnissen mit Cursor für die nächste Seite.
+ *
+ * Der Cursor ist eine stabile Position: Neue Fahrten werden nur angehängt,
+ * daher verschieben sie bereits gelieferte Seiten nicht.
+ *
+ * @param rides die Fahrten dieser Seite
+ * @param nextCursor Cursor für die nächste Seite oder {@link #NO_MORE}
+ */
+public record RidePage(List<Ride> rides, long nextCursor) {
+
+    /** Es gibt keine weitere Seite. */
+    public static final long NO_MORE = -1;
+
+    /** Cursor für die erste Seite. */
+    public static final long FIRST = 0;
+
+    public RidePage {
+        rides = List.copyOf(rides);
+    }
+
+    public boolean hasNext() {
+        return nextCursor != NO_MORE;
+    }
+}
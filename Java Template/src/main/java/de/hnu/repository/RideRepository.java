@@ -1,109 +1,681 @@
 package de.hnu.repository;
 
 import de.hnu.model.Ride;
+import de.hnu.util.IntList;
+import de.hnu.util.LongIntMap;
+import de.hnu.util.LongObjectMap;
+import de.hnu.util.StripedLocks;
 
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Repository für Fahrten (Rides).
  * In-Memory-Speicher mit vorgeladenen Dummy-Daten aus den Mockups.
  *
  * Daten entsprechen Page 120 (Available Rides Overview).
+ *
+ * Thread-sicher für gleichzeitige Zugriffe aus UI und REST: Schreibende Methoden
+ * sind synchronisiert, lesende arbeiten ohne Sperre auf dem zuletzt veröffentlichten
+ * {@link RideSnapshot}. Da Fahrten nur angehängt werden, muss dafür nichts kopiert werden.
+ *
+ * Optional dauerhaft: Mit einem Datenverzeichnis werden alle Speicherungen und
+ * Platz-Änderungen in ein {@link MappedJournal} geschrieben und beim Neustart
+ * aus Snapshot und Journal wiederhergestellt statt aus den Dummy-Daten.
  */
 public class RideRepository {
 
-    private List<Ride> rides;
+    // Anzahl der Streifen für die Sperren pro Fahrt (siehe getRideLocks)
+    private static final int RIDE_LOCK_STRIPES = 256;
+
+    // Nur vom Schreiber (unter der Sperre) verwendet; Leser nutzen den Snapshot
+    private Ride[] rows;
+    private int rowCount;
+
+    // Zuletzt veröffentlichter Stand für die Leser
+    private volatile RideSnapshot snapshot = RideSnapshot.EMPTY;
+
+    // Primärschlüssel-Index: ID → Zeile, O(1) ohne Boxing
+    private final LongIntMap rowsById;
+
+    // Trigramm-Indizes für die Teilstring-Suche, Zeile = Position in rows
+    private final TrigramIndex originIndex;
+    private final TrigramIndex destinationIndex;
+
+    // Sortierter Index über die Abfahrt für Zeitfenster-Suchen
+    private final DepartureIndex departureIndex;
+
+    // Städte als int-IDs für Spalten und Routen-Indizes
+    private final CityDictionary cities;
+
+    // Spaltenorientierte Kopie der filterbaren Felder für Scans
+    private final RideColumns columns;
+
+    // Routen-Index: (Start-ID, Ziel-ID) → Zeilen
+    private final LongObjectMap<IntList> rowsByRoute;
+
+    // Adjazenz über Städte: Start-ID → direkt erreichbare Ziel-IDs
+    private final LongObjectMap<IntList> destinationsByOrigin;
 
+    private final IdSequence idSequence = new IdSequence(0);
+
+    // Sperren pro Fahrt für die Services (nicht für das Repository selbst)
+    private final StripedLocks rideLocks = new StripedLocks(RIDE_LOCK_STRIPES);
+
+    // Nur im dauerhaften Modus gesetzt
+    private final MappedJournal journal;
+
+    /**
+     * Reiner In-Memory-Modus mit Dummy-Daten.
+     */
     public RideRepository() {
-        this.rides = new ArrayList<>();
-        initializeDummyData();
+        this(null);
+    }
+
+    /**
+     * Dauerhafter Modus: Lädt den Stand aus {@code dataDirectory}. Existieren dort
+     * noch keine Daten, werden die Dummy-Daten geladen und als erster Snapshot gespeichert.
+     *
+     * @param dataDirectory Verzeichnis für Journal und Snapshot oder null für reinen In-Memory-Modus
+     */
+    public RideRepository(Path dataDirectory) {
+        this.rows = new Ride[16];
+        this.rowsById = new LongIntMap();
+        this.originIndex = new TrigramIndex();
+        this.destinationIndex = new TrigramIndex();
+        this.departureIndex = new DepartureIndex();
+        this.cities = new CityDictionary();
+        this.columns = new RideColumns(cities);
+        this.rowsByRoute = new LongObjectMap<>();
+        this.destinationsByOrigin = new LongObjectMap<>();
+        this.journal = dataDirectory != null ? new MappedJournal(dataDirectory, "rides") : null;
+
+        if (journal != null && journal.hasData()) {
+            loadFromJournal();
+        } else {
+            initializeDummyData();
+            if (journal != null) {
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Stellt den Stand aus Snapshot und Journal wieder her.
+     * Doppelte Speicherungen (nach Absturz während eines Checkpoints) werden ignoriert.
+     */
+    private synchronized void loadFromJournal() {
+        journal.load((type, payload) -> {
+            if (type == RecordCodec.SAVE) {
+                Ride ride = RecordCodec.decodeRide(payload);
+                if (!rowsById.containsKey(ride.getId())) {
+                    add(ride);
+                }
+            } else if (type == RecordCodec.SEAT_CHANGE) {
+                applySeatChange(payload);
+            }
+        });
+        publish();
+    }
+
+    private void applySeatChange(ByteBuffer payload) {
+        long rideId = payload.getLong();
+        int availableSeats = payload.getInt();
+        int row = rowsById.get(rideId, -1);
+        if (row >= 0 && row < rowCount) {
+            rows[row].setAvailableSeats(availableSeats);
+            columns.updateSeats(row, availableSeats);
+        }
     }
 
     /**
      * Initialisiert die Dummy-Daten entsprechend der Balsamiq-Mockups.
      * Die Daten stammen aus Page 120 (Available Rides Overview).
      */
-    private void initializeDummyData() {
+    private synchronized void initializeDummyData() {
         // Datum für alle Fahrten: 27.10.2025 (aus Mockup Page 123)
         LocalDate rideDate = LocalDate.of(2025, 10, 27);
         LocalTime rideTime = LocalTime.of(5, 0); // 5 a.m.
 
         // Ride 1: Max Mustermann - Ulm → Köln, 449 km, 4 Sterne
-        rides.add(new Ride(1, "Max Mustermann", "Ulm", "Köln",
+        add(new Ride(1, "Max Mustermann", "Ulm", "Köln",
                 449, rideDate, rideTime, 2, 4));
 
         // Ride 2: Thomas Schmidt - Ulm → Frankfurt, 287 km, 4 Sterne
-        rides.add(new Ride(2, "Thomas Schmidt", "Ulm", "Frankfurt",
+        add(new Ride(2, "Thomas Schmidt", "Ulm", "Frankfurt",
                 287, rideDate, LocalTime.of(6, 30), 3, 4));
 
         // Ride 3: John Smith - Munich → Köln, 573 km, 4 Sterne
-        rides.add(new Ride(3, "John Smith", "Munich", "Köln",
+        add(new Ride(3, "John Smith", "Munich", "Köln",
                 573, rideDate, LocalTime.of(7, 0), 1, 4));
 
         // Ride 4: Erika Mustermann - Ulm → Frankfurt, 287 km, 3 Sterne
-        rides.add(new Ride(4, "Erika Mustermann", "Ulm", "Frankfurt",
+        add(new Ride(4, "Erika Mustermann", "Ulm", "Frankfurt",
                 287, rideDate, LocalTime.of(8, 0), 2, 3));
 
         // Ride 5: Hannes Müller - Ulm → Frankfurt, 287 km, 1 Stern
-        rides.add(new Ride(5, "Hannes Müller", "Ulm", "Frankfurt",
+        add(new Ride(5, "Hannes Müller", "Ulm", "Frankfurt",
                 287, rideDate, LocalTime.of(9, 0), 4, 1));
 
         // Ride 6: Anna Johnson - Augsburg → Frankfurt, 360 km, 5 Sterne
-        rides.add(new Ride(6, "Anna Johnson", "Augsburg", "Frankfurt",
+        add(new Ride(6, "Anna Johnson", "Augsburg", "Frankfurt",
                 360, rideDate, LocalTime.of(10, 0), 2, 5));
+
+        publish();
     }
 
     /**
      * Gibt alle verfügbaren Fahrten zurück.
+     * Die Liste ist eine unveränderliche Sicht ohne Kopie (siehe {@link RideSnapshot}).
      */
     public List<Ride> findAll() {
-        return new ArrayList<>(rides);
+        return snapshot;
     }
 
     /**
      * Findet eine Fahrt anhand der ID.
      */
     public Optional<Ride> findById(long id) {
-        return rides.stream()
-                .filter(ride -> ride.getId() == id)
-                .findFirst();
+        RideSnapshot current = snapshot;
+        int row = rowsById.get(id, -1);
+        // Zeilen eines noch nicht veröffentlichten Imports sind für Leser unsichtbar
+        if (row < 0 || row >= current.size()) {
+            return Optional.empty();
+        }
+        Ride ride = current.get(row);
+        return ride.getId() == id ? Optional.of(ride) : Optional.empty();
+    }
+
+    /**
+     * Findet alle Fahrten einer exakten Strecke (Städtenamen wie gespeichert)
+     * über den Routen-Index, in Speicherreihenfolge.
+     */
+    public List<Ride> findByRoute(String origin, String destination) {
+        RideSnapshot current = snapshot;
+        int originId = cities.lookup(origin);
+        int destinationId = cities.lookup(destination);
+        if (originId == CityDictionary.UNKNOWN || destinationId == CityDictionary.UNKNOWN) {
+            return List.of();
+        }
+        IntList rowsOfRoute = rowsByRoute.get(routeKey(originId, destinationId));
+        if (rowsOfRoute == null) {
+            return List.of();
+        }
+        // Größe vor dem Array lesen (siehe IntList)
+        int n = rowsOfRoute.size();
+        int[] values = rowsOfRoute.elements();
+        List<Ride> result = new ArrayList<>(n);
+        for (int i = 0; i < n && values[i] < current.size(); i++) {
+            result.add(current.get(values[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Gibt alle Städte zurück, die von {@code origin} aus direkt angefahren werden.
+     */
+    public List<String> findDestinations(String origin) {
+        int originId = cities.lookup(origin);
+        IntList destinationIds = originId == CityDictionary.UNKNOWN
+                ? null : destinationsByOrigin.get(originId);
+        if (destinationIds == null) {
+            return List.of();
+        }
+        int n = destinationIds.size();
+        int[] values = destinationIds.elements();
+        List<String> result = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            result.add(cities.name(values[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Gibt alle bekannten Städte zurück, deren Name den Suchbegriff enthält
+     * (case-insensitiv, wie {@link #searchRides(String, String)}).
+     */
+    public List<String> findCities(String query) {
+        int[] ids = cities.matching(query);
+        List<String> result = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            result.add(cities.name(id));
+        }
+        return result;
+    }
+
+    /**
+     * Sucht Fahrten über den spaltenorientierten Speicher.
+     * Nur die Treffer werden als {@link Ride} zurückgegeben.
+     */
+    public List<Ride> findMatching(RideFilter filter) {
+        RideSnapshot current = snapshot;
+        return materialize(current, columns.filter(filter, current.size()));
+    }
+
+    /**
+     * Zählt die passenden Fahrten, ohne Objekte anzufassen.
+     */
+    public int countMatching(RideFilter filter) {
+        return columns.count(filter, snapshot.size());
+    }
+
+    /**
+     * Summiert die freien Plätze aller passenden Fahrten.
+     */
+    public long countAvailableSeats(RideFilter filter) {
+        return columns.sumAvailableSeats(filter, snapshot.size());
     }
 
     /**
      * Sucht Fahrten nach Start- und Zielort.
      * Leere Suchparameter werden ignoriert (flexible Suche).
+     *
+     * Nutzt die Trigramm-Indizes, statt alle Fahrten zu durchsuchen.
      */
     public List<Ride> searchRides(String from, String to) {
-        return rides.stream()
-                .filter(ride -> {
-                    boolean matchesFrom = from == null || from.isEmpty()
-                            || ride.getOrigin().toLowerCase().contains(from.toLowerCase());
-                    boolean matchesTo = to == null || to.isEmpty()
-                            || ride.getDestination().toLowerCase().contains(to.toLowerCase());
-                    return matchesFrom && matchesTo;
-                })
-                .toList();
+        RideSnapshot current = snapshot;
+        if (isEmpty(from) && isEmpty(to)) {
+            return current;
+        }
+        return materialize(current, matchRoute(from, to, current.size()));
+    }
+
+    /**
+     * Sucht Fahrten nach Start- und Zielort mit Abfahrt im Zeitfenster
+     * [departureFrom, departureTo] (Minutengenauigkeit).
+     * Ergebnis ist nach Abfahrt sortiert.
+     *
+     * Eine fehlende Grenze (null) lässt das Fenster auf dieser Seite offen. Fahrten
+     * ohne Datum haben keine Abfahrt und sind nie im Ergebnis.
+     *
+     * Das Zeitfenster wird als Bereichs-Scan über den Abfahrts-Index beantwortet.
+     */
+    public List<Ride> searchRides(String from, String to,
+                                  LocalDateTime departureFrom, LocalDateTime departureTo) {
+        RideSnapshot current = snapshot;
+        int limit = current.size();
+        int[] matches = departureIndex.range(
+                packBound(departureFrom, Long.MIN_VALUE),
+                packBound(departureTo, Long.MAX_VALUE),
+                limit);
+        if (!isEmpty(from) || !isEmpty(to)) {
+            matches = DepartureIndex.retain(matches, matchRoute(from, to, limit));
+        }
+        return materialize(current, matches);
+    }
+
+    private static long packBound(LocalDateTime departure, long open) {
+        if (departure == null) {
+            return open;
+        }
+        return RideColumns.packDeparture(departure.toLocalDate(), departure.toLocalTime());
+    }
+
+    /**
+     * Liefert eine Seite von Suchergebnissen ab dem Cursor.
+     *
+     * Die Treffer werden lazy ermittelt: Für die erste Seite werden nur so viele
+     * Kandidaten geprüft, bis {@code pageSize} Fahrten gefunden sind, unabhängig von
+     * der Gesamtzahl der Fahrten oder Treffer.
+     *
+     * @param cursor {@link RidePage#FIRST} oder {@link RidePage#nextCursor()} der Vorseite
+     */
+    public RidePage findPage(String from, String to, long cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Seitengröße muss positiv sein: " + pageSize);
+        }
+        RouteMatchIterator matches = new RouteMatchIterator(from, to, cursor);
+        List<Ride> page = new ArrayList<>(pageSize);
+        while (page.size() < pageSize && matches.hasNext()) {
+            page.add(matches.next());
+        }
+        long nextCursor = matches.hasNext() ? matches.position() : RidePage.NO_MORE;
+        return new RidePage(page, nextCursor);
+    }
+
+    /**
+     * Liefert die Suchergebnisse ab dem Cursor als lazy Stream
+     * (z.B. für REST-Streaming oder {@code limit()}).
+     */
+    public Stream<Ride> stream(String from, String to, long cursor) {
+        Iterator<Ride> matches = new RouteMatchIterator(from, to, cursor);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                matches, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Läuft die Treffer einer Start/Ziel-Suche in Zeilenreihenfolge auf einem
+     * festen Snapshot ab. Die Zeile nach dem letzten Treffer dient als Cursor.
+     */
+    private final class RouteMatchIterator implements Iterator<Ride> {
+
+        private final RideSnapshot current = snapshot;
+        private final TrigramIndex.Matcher driver;
+        private final TrigramIndex.Matcher filter;
+        private int position;
+        private int nextRow = -2; // -2 = noch nicht gesucht, -1 = Ende
+
+        RouteMatchIterator(String from, String to, long cursor) {
+            if (cursor < 0 || cursor > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Ungültiger Cursor: " + cursor);
+            }
+            this.position = (int) cursor;
+            int limit = current.size();
+            TrigramIndex.Matcher fromMatcher = isEmpty(from) ? null : originIndex.matcher(from);
+            TrigramIndex.Matcher toMatcher = isEmpty(to) ? null : destinationIndex.matcher(to);
+            // Der Matcher mit weniger Kandidaten treibt, der andere filtert nur
+            if (fromMatcher != null && toMatcher != null
+                    && toMatcher.candidates(limit) < fromMatcher.candidates(limit)) {
+                this.driver = toMatcher;
+                this.filter = fromMatcher;
+            } else {
+                this.driver = fromMatcher != null ? fromMatcher : toMatcher;
+                this.filter = fromMatcher != null ? toMatcher : null;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (nextRow == -2) {
+                nextRow = findNext();
+            }
+            return nextRow >= 0;
+        }
+
+        @Override
+        public Ride next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Ride ride = current.get(nextRow);
+            position = nextRow + 1;
+            nextRow = -2;
+            return ride;
+        }
+
+        /**
+         * Cursor-Position hinter dem zuletzt gelieferten Treffer.
+         */
+        long position() {
+            return position;
+        }
+
+        private int findNext() {
+            int limit = current.size();
+            int row = position;
+            while (row < limit) {
+                row = driver == null ? row : driver.next(row, limit);
+                if (row < 0) {
+                    return -1;
+                }
+                if (filter == null || filter.matches(row)) {
+                    return row;
+                }
+                row++;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Zeilen, deren Start und Ziel die Suchbegriffe enthalten (aufsteigend sortiert).
+     * Leere Suchbegriffe schränken nicht ein.
+     */
+    private int[] matchRoute(String from, String to, int limit) {
+        if (isEmpty(from) && isEmpty(to)) {
+            int[] all = new int[limit];
+            Arrays.setAll(all, row -> row);
+            return all;
+        }
+        if (isEmpty(to)) {
+            return originIndex.search(from, limit);
+        }
+        if (isEmpty(from)) {
+            return destinationIndex.search(to, limit);
+        }
+        return intersect(originIndex.search(from, limit), destinationIndex.search(to, limit));
+    }
+
+    private static List<Ride> materialize(RideSnapshot snapshot, int[] matches) {
+        List<Ride> result = new ArrayList<>(matches.length);
+        for (int row : matches) {
+            result.add(snapshot.get(row));
+        }
+        return result;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    /**
+     * Schnittmenge zweier aufsteigend sortierter Zeilen-Arrays.
+     */
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
     }
 
     /**
      * Speichert eine neue Fahrt.
      */
-    public Ride save(Ride ride) {
+    public synchronized Ride save(Ride ride) {
         if (ride.getId() == 0) {
-            ride.setId(getNextId());
+            ride.setId(idSequence.next());
         }
-        rides.add(ride);
+        journal(RecordCodec.SAVE, RecordCodec.encodeRide(ride));
+        add(ride);
+        publish();
+        checkpointIfNeeded();
         return ride;
     }
 
-    private long getNextId() {
-        return rides.stream()
-                .mapToLong(Ride::getId)
-                .max()
-                .orElse(0) + 1;
+    /**
+     * Speichert mehrere Fahrten auf einmal (z.B. für Importe).
+     * Für alle Fahrten ohne ID wird ein zusammenhängender ID-Block reserviert.
+     * Leser sehen den gesamten Import erst nach Abschluss, dann aber vollständig.
+     */
+    public synchronized List<Ride> saveAll(List<Ride> newRides) {
+        int withoutId = 0;
+        for (Ride ride : newRides) {
+            if (ride.getId() == 0) {
+                withoutId++;
+            } else {
+                // Importierte IDs zuerst beobachten, damit der reservierte Block sie nicht enthält
+                idSequence.observe(ride.getId());
+            }
+        }
+
+        long nextId = idSequence.reserve(withoutId);
+        for (Ride ride : newRides) {
+            if (ride.getId() == 0) {
+                ride.setId(nextId++);
+            }
+            journal(RecordCodec.SAVE, RecordCodec.encodeRide(ride));
+            add(ride);
+        }
+        publish();
+        checkpointIfNeeded();
+        return newRides;
+    }
+
+    /**
+     * Überträgt geänderte freie Plätze einer gespeicherten Fahrt in die Indizes.
+     * Muss nach jeder Änderung von {@code availableSeats} oder der reservierten
+     * Plätze aufgerufen werden.
+     *
+     * Maßgeblich ist der atomar geführte Zähler in {@link Ride}; hier wird nur dessen
+     * aktueller Stand übernommen. Die Sperre des Repositorys wird dafür nicht genommen:
+     * Die Spalte wird per volatile Schreibzugriff aktualisiert, das Journal sperrt nur
+     * sich selbst. Sitz-Änderungen verschiedener Fahrten behindern sich also nicht.
+     */
+    public void recordSeatChange(Ride ride) {
+        updateSeatIndexes(ride);
+        checkpointIfNeeded();
+    }
+
+    /**
+     * Wie {@link #recordSeatChange(Ride)} für mehrere Fahrten (Gruppen-Commit einer
+     * Sammelbuchung).
+     */
+    public void recordSeatChanges(Collection<Ride> changedRides) {
+        for (Ride ride : changedRides) {
+            updateSeatIndexes(ride);
+        }
+        checkpointIfNeeded();
+    }
+
+    private void updateSeatIndexes(Ride ride) {
+        RideSnapshot current = snapshot;
+        int row = rowsById.get(ride.getId(), -1);
+        if (row < 0 || row >= current.size() || current.get(row) != ride) {
+            return;
+        }
+        columns.updateSeats(row, ride);
+        if (journal != null) {
+            // Zähler erst unter der Journal-Sperre lesen: der zuletzt angehängte Eintrag
+            // enthält dann immer den neuesten Stand. Reservierungen werden nicht
+            // gespeichert, sonst wären ihre Plätze nach einem Neustart verloren.
+            synchronized (journal) {
+                journal.append(RecordCodec.SEAT_CHANGE,
+                        RecordCodec.encodeSeatChange(ride.getId(), ride.availableSeatsWithoutHolds()));
+            }
+        }
+    }
+
+    /**
+     * Gibt die Sperren pro Fahrt zurück, die sich {@code BookingService} und
+     * {@code FavoriteService} für zusammengesetzte Änderungen an einer Fahrt teilen.
+     */
+    public StripedLocks getRideLocks() {
+        return rideLocks;
+    }
+
+    /**
+     * Schreibt im dauerhaften Modus einen kompakten Snapshot aller Fahrten
+     * und leert das Journal. Geschieht auch automatisch, wenn das Journal groß wird.
+     */
+    public synchronized void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        // Unter der Journal-Sperre, damit keine Sitz-Änderung zwischen Snapshot und Leeren verloren geht
+        synchronized (journal) {
+            List<byte[]> records = new ArrayList<>(rowCount);
+            for (int row = 0; row < rowCount; row++) {
+                records.add(RecordCodec.encodeRide(rows[row]));
+            }
+            journal.checkpoint(RecordCodec.SAVE, records);
+        }
+    }
+
+    /**
+     * Schließt im dauerhaften Modus das Journal. Danach sind keine Änderungen mehr möglich.
+     */
+    public synchronized void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void journal(byte type, byte[] payload) {
+        if (journal != null) {
+            journal.append(type, payload);
+        }
+    }
+
+    private void checkpointIfNeeded() {
+        if (journal != null && journal.needsCheckpoint()) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Fügt eine Fahrt zur Liste hinzu und hält ID- und Such-Indizes synchron.
+     * Bei doppelter ID bleibt wie bisher die zuerst gespeicherte Fahrt auffindbar.
+     */
+    private void add(Ride ride) {
+        int row = rowCount;
+        if (row == rows.length) {
+            // Alte Snapshots behalten das alte Array, daher kopieren statt vergrößern
+            rows = Arrays.copyOf(rows, row * 2);
+        }
+        rows[row] = ride;
+        rowCount = row + 1;
+        idSequence.observe(ride.getId());
+        rowsById.putIfAbsent(ride.getId(), row);
+        originIndex.add(row, ride.getOrigin());
+        destinationIndex.add(row, ride.getDestination());
+        int originId = cities.encode(ride.getOrigin());
+        int destinationId = cities.encode(ride.getDestination());
+        if (columns.add(row, ride, originId, destinationId)) {
+            // Während des Kopierens geänderte Plätze nachziehen
+            for (int previous = 0; previous < row; previous++) {
+                columns.updateSeats(previous, rows[previous]);
+            }
+        }
+        addToRouteIndex(row, originId, destinationId);
+        departureIndex.add(row, RideColumns.packDeparture(ride.getDate(), ride.getTime()));
+    }
+
+    private void addToRouteIndex(int row, int originId, int destinationId) {
+        long key = routeKey(originId, destinationId);
+        IntList rowsOfRoute = rowsByRoute.get(key);
+        if (rowsOfRoute == null) {
+            rowsOfRoute = new IntList(2);
+            rowsOfRoute.add(row);
+            rowsByRoute.put(key, rowsOfRoute);
+
+            // Neue Strecke: Kante im Städte-Graph ergänzen
+            IntList destinationIds = destinationsByOrigin.get(originId);
+            if (destinationIds == null) {
+                destinationIds = new IntList(2);
+                destinationIds.add(destinationId);
+                destinationsByOrigin.put(originId, destinationIds);
+            } else {
+                destinationIds.add(destinationId);
+            }
+        } else {
+            rowsOfRoute.add(row);
+        }
+    }
+
+    private static long routeKey(int originId, int destinationId) {
+        return ((long) originId << 32) | (destinationId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Veröffentlicht den aktuellen Stand als neuen Snapshot für die Leser.
+     */
+    private void publish() {
+        snapshot = new RideSnapshot(rows, rowCount);
     }
 }
@@ -0,0 +1,41 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Unveränderliche Sicht auf den Datenbestand des {@link RideRepository}
+ * zu einem bestimmten Zeitpunkt.
+ *
+ * Das Repository hängt neue Fahrten nur hinten an sein Array an und veröffentlicht
+ * danach einen neuen Snapshot. Ein Snapshot liest ausschließlich die ersten
+ * {@code size} Einträge, die danach nie mehr verändert werden. Dadurch können
+ * beliebig viele Leser ohne Sperre und ohne Kopie auf dieselben Daten zugreifen.
+ */
+public final class RideSnapshot extends AbstractList<Ride> implements RandomAccess {
+
+    static final RideSnapshot EMPTY = new RideSnapshot(new Ride[0], 0);
+
+    private final Ride[] rows;
+    private final int size;
+
+    RideSnapshot(Ride[] rows, int size) {
+        this.rows = rows;
+        this.size = size;
+    }
+
+    @Override
+    public Ride get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", Größe " + size);
+        }
+        return rows[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
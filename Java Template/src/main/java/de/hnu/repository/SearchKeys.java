@@ -0,0 +1,114 @@
+package de.hnu.repository;
+
+import java.text.Normalizer;
+import java.util.Map;
+
+/**
+ * Erzeugt vergleichbare Suchschlüssel für Städtenamen.
+ *
+ * Ein Schlüssel ist klein geschrieben (locale-unabhängig), deutsche Umlaute und ß
+ * werden transliteriert (ö → oe, ß → ss) und übrige diakritische Zeichen per NFKD
+ * entfernt. Dadurch findet "Koeln" auch "Köln" und umgekehrt. Bekannte englische
+ * Städtenamen (z.B. "Munich") werden zusätzlich auf den deutschen Namen abgebildet.
+ *
+ * Gespeicherte Texte werden einmalig beim Speichern gefaltet, Suchbegriffe einmal
+ * pro Suche; beim Vergleich selbst entstehen keine weiteren Objekte.
+ */
+final class SearchKeys {
+
+    // Trennt den Schlüssel vom Alias; kommt in gefalteten Suchbegriffen nicht vor
+    private static final char ALIAS_SEPARATOR = '\u0000';
+
+    private static final char COMBINING_DIAERESIS = '\u0308';
+
+    // Gefaltete englische Namen → gefalteter deutscher Name
+    private static final Map<String, String> ALIASES = Map.of(
+            "munich", "muenchen",
+            "cologne", "koeln",
+            "nuremberg", "nuernberg",
+            "hanover", "hannover",
+            "brunswick", "braunschweig");
+
+    private SearchKeys() {
+    }
+
+    /**
+     * Schlüssel für einen gespeicherten Text. Hat der Name einen Alias, wird dieser
+     * angehängt, damit sowohl Teilstrings des Originals als auch der Alias passen.
+     */
+    static String forStoredText(String text) {
+        String key = fold(text);
+        String alias = ALIASES.get(key);
+        return alias == null ? key : key + ALIAS_SEPARATOR + alias;
+    }
+
+    /**
+     * Schlüssel für einen Suchbegriff; ein bekannter englischer Name wird durch
+     * den deutschen ersetzt.
+     */
+    static String forQuery(String query) {
+        String key = fold(query);
+        return ALIASES.getOrDefault(key, key);
+    }
+
+    /**
+     * Faltet Groß-/Kleinschreibung, Umlaute und diakritische Zeichen.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String trimmed = text.strip();
+        StringBuilder key = null;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            // Schneller Weg: reine ASCII-Kleinbuchstaben werden nicht kopiert
+            if (key == null) {
+                if (c < 0x80 && !(c >= 'A' && c <= 'Z') && c != ALIAS_SEPARATOR) {
+                    continue;
+                }
+                key = new StringBuilder(trimmed.length() + 4);
+                key.append(trimmed, 0, i);
+            }
+            appendFolded(key, c);
+        }
+        return key == null ? trimmed : key.toString();
+    }
+
+    private static void appendFolded(StringBuilder key, char c) {
+        if (c < 0x80) {
+            if (c != ALIAS_SEPARATOR) {
+                key.append(Character.toLowerCase(c));
+            }
+            return;
+        }
+        switch (Character.toLowerCase(c)) {
+            case 'ä' -> key.append("ae");
+            case 'ö' -> key.append("oe");
+            case 'ü' -> key.append("ue");
+            case 'ß' -> key.append("ss");
+            case COMBINING_DIAERESIS -> appendDiaeresis(key);
+            default -> appendDecomposed(key, c);
+        }
+    }
+
+    /**
+     * Bereits zerlegte Umlaute (z.B. "o" + U+0308) wie die zusammengesetzten behandeln.
+     */
+    private static void appendDiaeresis(StringBuilder key) {
+        int last = key.length() - 1;
+        if (last >= 0 && "aou".indexOf(key.charAt(last)) >= 0) {
+            key.append('e');
+        }
+    }
+
+    private static void appendDecomposed(StringBuilder key, char c) {
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFKD);
+        for (int i = 0; i < decomposed.length(); i++) {
+            char d = decomposed.charAt(i);
+            if (Character.getType(d) != Character.NON_SPACING_MARK) {
+                key.append(Character.toLowerCase(d));
+            }
+        }
+    }
+}
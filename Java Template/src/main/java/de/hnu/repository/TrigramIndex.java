@@ -0,0 +1,269 @@
+package de.hnu.repository;
+
+import de.hnu.util.IntList;
+import de.hnu.util.LongObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Invertierter Trigramm-Index für Teilstring-Suchen auf einer Textspalte.
+ *
+ * Jede Zeile (Position im Repository) wird beim Speichern einmal zu einem
+ * {@link SearchKeys Suchschlüssel} gefaltet und in ihre Trigramme zerlegt. Eine Suche
+ * faltet und zerlegt nur den Suchbegriff, schneidet die Posting-Listen seiner Trigramme
+ * und prüft die wenigen Kandidaten abschließend mit {@code contains}. Gesucht wird
+ * also case-insensitiv nach Teilstrings, unabhängig von Umlaut-Schreibweisen.
+ *
+ * Änderungen am Text nach dem Speichern werden nicht nachgeführt.
+ *
+ * Thread-Sicherheit: ein Schreiber (vom Repository synchronisiert), beliebig viele
+ * Leser ohne Sperre. Leser übergeben die Zeilenanzahl ihres Snapshots und sehen
+ * nur Zeilen unterhalb dieser Grenze.
+ */
+class TrigramIndex {
+
+    private static final int GRAM = 3;
+
+    // Vorberechnete Suchschlüssel pro Zeile; erst der Schlüssel, dann die Größe veröffentlichen
+    private volatile String[] keys = new String[16];
+    private volatile int size;
+
+    // Trigramm (3 chars in einen long gepackt) → aufsteigende Zeilennummern
+    private final LongObjectMap<IntList> postings = new LongObjectMap<>();
+
+    /**
+     * Indiziert den Text der nächsten Zeile. Zeilen müssen fortlaufend ab 0 hinzugefügt werden.
+     */
+    void add(int row, String text) {
+        if (row != size) {
+            throw new IllegalArgumentException("Zeile " + row + " erwartet " + size);
+        }
+        String key = SearchKeys.forStoredText(text);
+        String[] k = keys;
+        if (row == k.length) {
+            k = Arrays.copyOf(k, row * 2);
+            keys = k;
+        }
+        k[row] = key;
+        size = row + 1;
+
+        for (int i = 0; i + GRAM <= key.length(); i++) {
+            long gram = gram(key, i);
+            IntList list = postings.get(gram);
+            if (list == null) {
+                list = new IntList();
+                postings.put(gram, list);
+            }
+            // Ein Trigramm kann mehrfach im Text vorkommen, die Zeile aber nur einmal
+            if (list.last() != row) {
+                list.add(row);
+            }
+        }
+    }
+
+    /**
+     * Gibt alle Zeilen unterhalb von {@code limit} zurück, deren Text den
+     * Suchbegriff enthält (aufsteigend sortiert).
+     *
+     * @param limit Zeilenanzahl des Snapshots, auf dem gesucht wird
+     */
+    int[] search(String query, int limit) {
+        String[] k = keys;
+        String q = SearchKeys.forQuery(query);
+        if (q.length() < GRAM) {
+            return scan(k, q, limit);
+        }
+
+        int grams = q.length() - GRAM + 1;
+        int[][] lists = new int[grams][];
+        int[] lengths = new int[grams];
+        for (int i = 0; i < grams; i++) {
+            IntList list = postings.get(gram(q, i));
+            if (list == null) {
+                return new int[0];
+            }
+            // Größe vor dem Array lesen (siehe IntList)
+            int n = list.size();
+            lists[i] = list.elements();
+            lengths[i] = n;
+        }
+
+        // Mit der kürzesten Liste beginnen, damit die Schnittmenge schnell schrumpft
+        int shortest = 0;
+        for (int i = 1; i < grams; i++) {
+            if (lengths[i] < lengths[shortest]) {
+                shortest = i;
+            }
+        }
+        int[] candidates = new int[lengths[shortest]];
+        int count = 0;
+        for (int i = 0; i < lengths[shortest]; i++) {
+            int row = lists[shortest][i];
+            if (row >= limit) {
+                break;
+            }
+            candidates[count++] = row;
+        }
+        for (int l = 0; l < grams && count > 0; l++) {
+            if (l != shortest) {
+                count = intersect(candidates, count, lists[l], lengths[l]);
+            }
+        }
+
+        // Trigramme sind notwendig, aber nicht hinreichend: Kandidaten verifizieren
+        int matches = 0;
+        for (int i = 0; i < count; i++) {
+            int row = candidates[i];
+            if (k[row].contains(q)) {
+                candidates[matches++] = row;
+            }
+        }
+        return Arrays.copyOf(candidates, matches);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Erzeugt einen Matcher für das schrittweise (lazy) Durchlaufen der Treffer,
+     * z.B. für seitenweise Ergebnisse ab einer Cursor-Position.
+     */
+    Matcher matcher(String query) {
+        String[] k = keys;
+        String q = SearchKeys.forQuery(query);
+        if (q.length() < GRAM) {
+            return new Matcher(k, q, null, 0);
+        }
+
+        // Die kürzeste Posting-Liste treibt die Iteration, der Rest wird per contains geprüft
+        int[] driver = null;
+        int driverSize = Integer.MAX_VALUE;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            IntList list = postings.get(gram(q, i));
+            if (list == null) {
+                return new Matcher(k, q, new int[0], 0);
+            }
+            int n = list.size();
+            if (n < driverSize) {
+                driverSize = n;
+                driver = list.elements();
+            }
+        }
+        return new Matcher(k, q, driver, driverSize);
+    }
+
+    /**
+     * Findet Treffer eines Suchbegriffs in aufsteigender Zeilenreihenfolge,
+     * ohne vorher alle Treffer zu berechnen.
+     */
+    static final class Matcher {
+
+        private final String[] keys;
+        private final String query;
+        // null = keine passende Posting-Liste (Suchbegriff zu kurz), alle Zeilen prüfen
+        private final int[] driver;
+        private final int driverSize;
+
+        private Matcher(String[] keys, String query, int[] driver, int driverSize) {
+            this.keys = keys;
+            this.query = query;
+            this.driver = driver;
+            this.driverSize = driverSize;
+        }
+
+        /**
+         * Anzahl der Kandidaten, die höchstens geprüft werden müssen.
+         */
+        int candidates(int limit) {
+            return driver == null ? limit : driverSize;
+        }
+
+        boolean matches(int row) {
+            return keys[row].contains(query);
+        }
+
+        /**
+         * Gibt die erste passende Zeile in [fromRow, limit) zurück oder -1.
+         */
+        int next(int fromRow, int limit) {
+            if (driver == null) {
+                for (int row = fromRow; row < limit; row++) {
+                    if (matches(row)) {
+                        return row;
+                    }
+                }
+                return -1;
+            }
+            for (int i = lowerBound(driver, 0, driverSize, fromRow); i < driverSize; i++) {
+                int row = driver[i];
+                if (row >= limit) {
+                    return -1;
+                }
+                if (matches(row)) {
+                    return row;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Fallback für Suchbegriffe kürzer als ein Trigramm: lineare Suche
+     * über die vorberechneten Schlüssel (ohne weitere Allokationen).
+     */
+    private static int[] scan(String[] k, String q, int limit) {
+        IntList result = new IntList();
+        for (int row = 0; row < limit; row++) {
+            if (k[row].contains(q)) {
+                result.add(row);
+            }
+        }
+        return result.toArray();
+    }
+
+    /**
+     * Schneidet die ersten {@code count} Kandidaten mit einer sortierten Posting-Liste
+     * (Galloping-Suche) und schreibt das Ergebnis in {@code candidates} zurück.
+     */
+    private static int intersect(int[] candidates, int count, int[] list, int listSize) {
+        int written = 0;
+        int pos = 0;
+        for (int i = 0; i < count && pos < listSize; i++) {
+            int row = candidates[i];
+            pos = lowerBound(list, pos, listSize, row);
+            if (pos < listSize && list[pos] == row) {
+                candidates[written++] = row;
+                pos++;
+            }
+        }
+        return written;
+    }
+
+    private static int lowerBound(int[] list, int from, int to, int value) {
+        // Exponentiell vortasten, dann binär suchen
+        int step = 1;
+        int hi = from;
+        while (hi < to && list[hi] < value) {
+            from = hi + 1;
+            hi += step;
+            step <<= 1;
+        }
+        hi = Math.min(hi, to);
+        while (from < hi) {
+            int mid = (from + hi) >>> 1;
+            if (list[mid] < value) {
+                from = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return from;
+    }
+
+    private static long gram(String s, int offset) {
+        return ((long) s.charAt(offset) << 32)
+                | ((long) s.charAt(offset + 1) << 16)
+                | s.charAt(offset + 2);
+    }
+}
@@ -2,22 +2,87 @@ package de.hnu.repository;
 
 import de.hnu.model.Ride;
 import de.hnu.model.User;
+import de.hnu.util.LongIntMap;
+import de.hnu.util.LongObjectMap;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Repository für Benutzer.
  * In-Memory-Speicher mit dem simulierten Benutzer Samuel Klefe.
+ *
+ * Optional dauerhaft über ein {@link MappedJournal}, wie beim {@link RideRepository}.
+ *
+ * Indizes: ID → Benutzer (primitive Schlüssel, O(1)) und normalisierter voller Name →
+ * Benutzer, z.B. um den Fahrer einer Fahrt über {@code driverName} zu finden. Der Name
+ * wird wie Städtenamen gefaltet (Groß-/Kleinschreibung, Umlaute) und Leerzeichen
+ * zusammengefasst, "samuel  KLEFE" findet also "Samuel Klefe".
+ *
+ * Thread-Sicherheit: Schreibende Methoden sind synchronisiert, Lookups über die
+ * Indizes laufen ohne Sperre.
  */
 public class UserRepository {
 
-    private List<User> users;
+    private final List<User> users;
 
+    private final LongObjectMap<User> usersById = new LongObjectMap<>();
+    // ID → Position in users, damit das Ersetzen eines Benutzers nicht die Liste durchsucht;
+    // nur unter der Sperre verwendet
+    private final LongIntMap positionsById = new LongIntMap();
+    // Unveränderliche Listen, werden beim Schreiben ersetzt (Namen sind nicht eindeutig)
+    private final Map<String, List<User>> usersByName = new ConcurrentHashMap<>();
+    // Zuletzt indizierter Namensschlüssel pro ID, damit eine Umbenennung den alten Eintrag findet
+    private final LongObjectMap<String> nameKeys = new LongObjectMap<>();
+
+    private final IdSequence idSequence = new IdSequence(0);
+
+    // Nur im dauerhaften Modus gesetzt
+    private final MappedJournal journal;
+
+    /**
+     * Reiner In-Memory-Modus mit Dummy-Daten.
+     */
     public UserRepository() {
+        this(null);
+    }
+
+    /**
+     * Dauerhafter Modus: Lädt den Stand aus {@code dataDirectory}. Existieren dort
+     * noch keine Daten, wird der Dummy-Benutzer angelegt und als erster Snapshot gespeichert.
+     *
+     * @param dataDirectory Verzeichnis für Journal und Snapshot oder null für reinen In-Memory-Modus
+     */
+    public UserRepository(Path dataDirectory) {
         this.users = new ArrayList<>();
-        initializeDummyData();
+        this.journal = dataDirectory != null ? new MappedJournal(dataDirectory, "users") : null;
+
+        if (journal != null && journal.hasData()) {
+            loadFromJournal();
+        } else {
+            initializeDummyData();
+            if (journal != null) {
+                checkpoint();
+            }
+        }
+    }
+
+    /**
+     * Stellt den Stand aus Snapshot und Journal wieder her.
+     */
+    private void loadFromJournal() {
+        journal.load((type, payload) -> {
+            if (type == RecordCodec.SAVE) {
+                // Spätere Einträge (Änderungen) ersetzen frühere
+                User user = RecordCodec.decodeUser(payload);
+                store(user);
+                idSequence.observe(user.getId());
+            }
+        });
     }
 
     /**
@@ -26,48 +91,188 @@ public class UserRepository {
     private void initializeDummyData() {
         // Aktueller Benutzer: Samuel Klefe
         User samuelKlefe = new User(1, "Samuel", "Klefe", 4.5);
-        users.add(samuelKlefe);
+        store(samuelKlefe);
+        idSequence.observe(samuelKlefe.getId());
     }
 
     /**
      * Gibt alle Benutzer zurück.
      */
-    public List<User> findAll() {
+    public synchronized List<User> findAll() {
         return new ArrayList<>(users);
     }
 
     /**
-     * Findet einen Benutzer anhand der ID.
+     * Findet einen Benutzer anhand der ID über den ID-Index.
      */
     public Optional<User> findById(long id) {
-        return users.stream()
-                .filter(user -> user.getId() == id)
-                .findFirst();
+        return Optional.ofNullable(usersById.get(id));
     }
 
     /**
-     * Gibt den aktuellen (eingeloggten) Benutzer zurück.
-     * In diesem Prototyp ist das immer Samuel Klefe.
+     * Findet alle Benutzer mit dem vollen Namen ("Vorname Nachname"), unabhängig von
+     * Groß-/Kleinschreibung, Umlaut-Schreibweise und überzähligen Leerzeichen.
      */
-    public User getCurrentUser() {
+    public List<User> findByFullName(String fullName) {
+        return usersByName.getOrDefault(nameKey(fullName), List.of());
+    }
+
+    /**
+     * Findet den Fahrer einer Fahrt: die gesetzte Referenz, sonst den Benutzer mit
+     * dem Fahrernamen, falls dieser eindeutig ist.
+     */
+    public Optional<User> findDriver(Ride ride) {
+        if (ride.getDriver() != null) {
+            return Optional.of(ride.getDriver());
+        }
+        List<User> candidates = findByFullName(ride.getDriverName());
+        return candidates.size() == 1 ? Optional.of(candidates.get(0)) : Optional.empty();
+    }
+
+    /**
+     * Gibt den Standard-Benutzer des Prototyps zurück (Samuel Klefe).
+     * Welche Benutzer angemeldet sind, verwaltet der {@code SessionService}.
+     */
+    public synchronized User getCurrentUser() {
         return users.get(0); // Samuel Klefe
     }
 
     /**
-     * Speichert einen Benutzer.
+     * Speichert einen Benutzer. Ein bereits gespeicherter Benutzer (z.B. nach
+     * Änderung des Namens) wird neu indiziert.
      */
-    public User save(User user) {
+    public synchronized User save(User user) {
         if (user.getId() == 0) {
-            user.setId(getNextId());
-            users.add(user);
+            user.setId(idSequence.next());
+        } else {
+            idSequence.observe(user.getId());
         }
+        journal(user);
+        store(user);
+        checkpointIfNeeded();
         return user;
     }
 
-    private long getNextId() {
-        return users.stream()
-                .mapToLong(User::getId)
-                .max()
-                .orElse(0) + 1;
+    /**
+     * Speichert mehrere Benutzer auf einmal (z.B. für Importe).
+     * Für alle neuen Benutzer wird ein zusammenhängender ID-Block reserviert.
+     */
+    public synchronized List<User> saveAll(List<User> newUsers) {
+        int withoutId = 0;
+        for (User user : newUsers) {
+            if (user.getId() == 0) {
+                withoutId++;
+            }
+        }
+
+        if (newUsers.size() > withoutId) {
+            // Bulk-Load mit vorhandenen IDs (z.B. Import): erst beobachten, dann reservieren
+            for (User user : newUsers) {
+                if (user.getId() != 0) {
+                    idSequence.observe(user.getId());
+                }
+            }
+        }
+        long nextId = idSequence.reserve(withoutId);
+        for (User user : newUsers) {
+            if (user.getId() == 0) {
+                user.setId(nextId++);
+            }
+            journal(user);
+            store(user);
+        }
+        checkpointIfNeeded();
+        return newUsers;
+    }
+
+    /**
+     * Schreibt im dauerhaften Modus einen kompakten Snapshot aller Benutzer
+     * und leert das Journal.
+     */
+    public synchronized void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        List<byte[]> records = new ArrayList<>(users.size());
+        for (User user : users) {
+            records.add(RecordCodec.encodeUser(user));
+        }
+        journal.checkpoint(RecordCodec.SAVE, records);
+    }
+
+    /**
+     * Schließt im dauerhaften Modus das Journal.
+     */
+    public synchronized void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Legt einen Benutzer ab oder ersetzt den mit derselben ID und pflegt die Indizes.
+     */
+    private void store(User user) {
+        User previous = usersById.put(user.getId(), user);
+        if (previous == null) {
+            positionsById.put(user.getId(), users.size());
+            users.add(user);
+        } else if (previous != user) {
+            users.set(positionsById.get(user.getId(), -1), user);
+        }
+
+        String key = nameKey(user.getFullName());
+        String previousKey = nameKeys.put(user.getId(), key);
+        if (previous != null && previousKey != null) {
+            usersByName.computeIfPresent(previousKey, (k, list) -> without(list, previous));
+        }
+        usersByName.merge(key, List.of(user), UserRepository::concat);
+    }
+
+    private static List<User> without(List<User> list, User user) {
+        List<User> remaining = new ArrayList<>(list);
+        remaining.remove(user);
+        return remaining.isEmpty() ? null : List.copyOf(remaining);
+    }
+
+    private static List<User> concat(List<User> list, List<User> added) {
+        List<User> result = new ArrayList<>(list.size() + added.size());
+        result.addAll(list);
+        result.addAll(added);
+        return List.copyOf(result);
+    }
+
+    /**
+     * Normalisierter Namensschlüssel: gefaltet wie Städtenamen, Leerzeichen zusammengefasst.
+     */
+    static String nameKey(String fullName) {
+        String folded = SearchKeys.fold(fullName);
+        StringBuilder key = new StringBuilder(folded.length());
+        boolean space = false;
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = key.length() > 0;
+            } else {
+                if (space) {
+                    key.append(' ');
+                    space = false;
+                }
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private void journal(User user) {
+        if (journal != null) {
+            journal.append(RecordCodec.SAVE, RecordCodec.encodeUser(user));
+        }
+    }
+
+    private void checkpointIfNeeded() {
+        if (journal != null && journal.needsCheckpoint()) {
+            checkpoint();
+        }
     }
 }
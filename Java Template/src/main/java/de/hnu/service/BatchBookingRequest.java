@@ -0,0 +1,14 @@
+package de.hnu.service;
+
+import java.util.List;
+
+/**
+ * Request Body für Sammelbuchungen (POST /bookings/batch).
+ *
+ * Wird z.B. von Firmenkunden verwendet, die für viele Mitarbeiter auf einmal buchen.
+ *
+ * @param userId ID des buchenden Benutzers (0 = ohne Zuordnung zu einem Benutzer)
+ * @param bookings die einzelnen Positionen
+ */
+public record BatchBookingRequest(long userId, List<SeatRequest> bookings) {
+}
@@ -0,0 +1,161 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buchungsverlauf pro Benutzer.
+ *
+ * Ersetzt das frühere einzelne {@code lastBookedRide}-Feld, das sich alle Benutzer
+ * geteilt haben. Jeder Benutzer hat einen eigenen Ringpuffer mit seinen letzten
+ * Buchungen (Fahrt und Anzahl Plätze); die Bestätigungsseite liest die letzte
+ * Buchung in O(1), die "Previous Rides" den Verlauf.
+ *
+ * Der Ringpuffer ist nur eine Anzeige und verwirft alte Einträge. Stornierungen
+ * verwenden deshalb die offenen Buchungen pro Fahrt, die daneben unbegrenzt geführt
+ * werden; auch eine alte Buchung lässt sich so immer stornieren.
+ *
+ * Thread-sicher: Die Map ist nebenläufig, jeder Verlauf sperrt nur sich selbst.
+ * Buchungen verschiedener Benutzer behindern sich also nicht.
+ */
+public class BookingLedger {
+
+    // Ältere Buchungen fallen aus dem angezeigten Verlauf (stornierbar bleiben sie)
+    public static final int DEFAULT_HISTORY_SIZE = 50;
+
+    private final Map<Long, History> histories = new ConcurrentHashMap<>();
+    private final int historySize;
+
+    public BookingLedger() {
+        this(DEFAULT_HISTORY_SIZE);
+    }
+
+    public BookingLedger(int historySize) {
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("Verlaufsgröße muss positiv sein: " + historySize);
+        }
+        this.historySize = historySize;
+    }
+
+    /**
+     * Trägt eine Buchung über {@code seats} Plätze in den Verlauf des Benutzers ein.
+     */
+    public void record(long userId, Ride ride, int seats) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + seats);
+        }
+        histories.computeIfAbsent(userId, id -> new History(historySize)).add(ride, seats);
+    }
+
+    /**
+     * Gibt die letzte Buchung des Benutzers zurück oder null.
+     */
+    public Ride lastBooking(long userId) {
+        History history = histories.get(userId);
+        return history == null ? null : history.last();
+    }
+
+    /**
+     * Gibt die gespeicherten Buchungen des Benutzers zurück, neueste zuerst.
+     */
+    public List<Ride> history(long userId) {
+        History history = histories.get(userId);
+        return history == null ? List.of() : history.newestFirst();
+    }
+
+    /**
+     * Entfernt die neueste offene Buchung der Fahrt (Stornierung), auch wenn sie im
+     * Verlauf schon verdrängt wurde.
+     *
+     * @return Anzahl der Plätze dieser Buchung, 0 wenn der Benutzer die Fahrt nicht gebucht hat
+     */
+    public int remove(long userId, Ride ride) {
+        History history = histories.get(userId);
+        return history == null ? 0 : history.remove(ride.getId());
+    }
+
+    /**
+     * Ringpuffer fester Größe für die Anzeige; die älteste Buchung wird überschrieben.
+     * Daneben alle offenen Buchungen pro Fahrt für Stornierungen.
+     */
+    private static final class History {
+
+        private final Ride[] rides;
+        private final int[] seats; // parallel zu rides
+        private int next;
+        private int count;
+        // Plätze der offenen Buchungen pro Fahrt-ID, neueste zuletzt
+        private final Map<Long, ArrayDeque<Integer>> openBookings = new HashMap<>();
+
+        History(int capacity) {
+            this.rides = new Ride[capacity];
+            this.seats = new int[capacity];
+        }
+
+        synchronized void add(Ride ride, int bookedSeats) {
+            openBookings.computeIfAbsent(ride.getId(), id -> new ArrayDeque<>(1)).addLast(bookedSeats);
+            rides[next] = ride;
+            seats[next] = bookedSeats;
+            next = (next + 1) % rides.length;
+            if (count < rides.length) {
+                count++;
+            }
+        }
+
+        synchronized Ride last() {
+            return count == 0 ? null : rides[(next - 1 + rides.length) % rides.length];
+        }
+
+        synchronized int remove(long rideId) {
+            ArrayDeque<Integer> open = openBookings.get(rideId);
+            if (open == null) {
+                return 0;
+            }
+            int removedSeats = open.removeLast();
+            if (open.isEmpty()) {
+                openBookings.remove(rideId);
+            }
+            removeNewest(rideId);
+            return removedSeats;
+        }
+
+        /**
+         * Entfernt den neuesten Eintrag der Fahrt aus dem Ringpuffer, falls noch vorhanden.
+         * Verdrängt wird immer der älteste Eintrag: Ist die neueste offene Buchung nicht
+         * mehr im Puffer, ist es auch keine andere dieser Fahrt.
+         */
+        private void removeNewest(long rideId) {
+            int capacity = rides.length;
+            for (int i = 1; i <= count; i++) {
+                int index = (next - i + capacity) % capacity;
+                if (rides[index].getId() == rideId) {
+                    // Neuere Einträge rücken eine Position nach
+                    for (int j = i; j > 1; j--) {
+                        int to = (next - j + capacity) % capacity;
+                        rides[to] = rides[(to + 1) % capacity];
+                        seats[to] = seats[(to + 1) % capacity];
+                    }
+                    next = (next - 1 + capacity) % capacity;
+                    rides[next] = null;
+                    seats[next] = 0;
+                    count--;
+                    return;
+                }
+            }
+        }
+
+        synchronized List<Ride> newestFirst() {
+            List<Ride> result = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                result.add(rides[(next - i + rides.length) % rides.length]);
+            }
+            return result;
+        }
+    }
+}
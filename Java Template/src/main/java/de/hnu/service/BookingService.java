@@ -1,8 +1,20 @@
 package de.hnu.service;
 
+import de.hnu.model.BookingRecord;
 import de.hnu.model.Ride;
 import de.hnu.model.User;
+import de.hnu.repository.RideRepository;
 import de.hnu.repository.UserRepository;
+import de.hnu.util.HashedTimerWheel;
+import de.hnu.util.StripedLocks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service für Buchungen.
@@ -12,43 +24,415 @@ import de.hnu.repository.UserRepository;
  */
 public class BookingService {
 
+    // So lange bleibt ein Platz reserviert, während der Benutzer die Details ansieht
+    public static final Duration DEFAULT_HOLD_TIME = Duration.ofMinutes(5);
+    // So lange wartet eine Buchung höchstens auf Platz im Write-Behind-Puffer
+    public static final Duration WRITE_BEHIND_TIMEOUT = Duration.ofMillis(250);
+
     private final UserRepository userRepository;
-    private Ride lastBookedRide; // Speichert die zuletzt gebuchte Fahrt für Bestätigung
+    private final RideRepository rideRepository;
+    private final BookingLedger bookingLedger = new BookingLedger(); // Buchungen pro Benutzer für Bestätigung
+    private final RideWaitlist waitlist = new RideWaitlist();
+    // Ablauf der Reservierungen: 100 ms Genauigkeit, eine Umdrehung ≈ 100 s
+    private final HashedTimerWheel holdTimer =
+            new HashedTimerWheel(100, TimeUnit.MILLISECONDS, 1024, "seat-hold-expiry");
+
+    // Sperren pro Fahrt für zusammengesetzte Änderungen (Plätze, Verlauf, Write-Behind)
+    private final StripedLocks rideLocks;
+    // Asynchrones Schreiben in die Datenbank, null = nur im Speicher
+    private final BookingWriteBehind writeBehind;
+
+    public BookingService(UserRepository userRepository, RideRepository rideRepository) {
+        this(userRepository, rideRepository, null);
+    }
 
-    public BookingService(UserRepository userRepository) {
+    /**
+     * @param bookingSink Ziel für das asynchrone Persistieren aller Buchungen
+     *                    (z.B. {@link JpaBookingSink}) oder null
+     */
+    public BookingService(UserRepository userRepository, RideRepository rideRepository,
+                          BookingSink bookingSink) {
         this.userRepository = userRepository;
+        this.rideRepository = rideRepository;
+        this.rideLocks = rideRepository.getRideLocks();
+        this.writeBehind = bookingSink != null ? new BookingWriteBehind(bookingSink) : null;
     }
 
     /**
      * Bucht eine Fahrt für den aktuellen Benutzer.
      *
      * In diesem Prototyp wird die Buchung nur simuliert:
-     * - Verfügbare Plätze werden reduziert
+     * - Verfügbare Plätze werden unter der Sperre der Fahrt reduziert
+     *   (sicher bei gleichzeitigen Buchungen)
      * - Die gebuchte Fahrt wird gespeichert für die Bestätigung
      *
      * @param ride Die zu buchende Fahrt
      * @return true wenn Buchung erfolgreich, false wenn keine Plätze verfügbar
      */
     public boolean bookRide(Ride ride) {
-        if (ride.getAvailableSeats() <= 0) {
-            return false;
+        return bookRide(userRepository.getCurrentUser().getId(), ride);
+    }
+
+    /**
+     * Bucht eine Fahrt für einen bestimmten Benutzer.
+     *
+     * @param userId ID des buchenden Benutzers
+     * @param ride Die zu buchende Fahrt
+     * @return true wenn Buchung erfolgreich, false wenn keine Plätze verfügbar
+     */
+    public boolean bookRide(long userId, Ride ride) {
+        return bookRide(userId, ride, 1, SeatPolicy.ALL_OR_NOTHING) == 1;
+    }
+
+    /**
+     * Bucht mehrere Plätze auf einer Fahrt mit einer einzigen Reduzierung unter der
+     * Sperre der Fahrt (Streifen aus {@link RideRepository#getRideLocks()}).
+     *
+     * @param userId ID des buchenden Benutzers
+     * @param ride Die zu buchende Fahrt
+     * @param seats gewünschte Anzahl Plätze (mindestens 1)
+     * @param policy Verhalten, wenn weniger Plätze frei sind
+     * @return Anzahl der gebuchten Plätze (0 wenn nichts gebucht wurde)
+     * @throws IllegalStateException wenn die Buchung gerade nicht gespeichert werden kann
+     *                               (siehe {@link #WRITE_BEHIND_TIMEOUT})
+     */
+    public int bookRide(long userId, Ride ride, int seats, SeatPolicy policy) {
+        awaitWriteCapacity();
+        return rideLocks.withLock(ride.getId(), () -> {
+            // Prüfen und Reduzieren in einem Schritt, sonst können zwei Buchungen denselben Platz bekommen
+            int booked = reserve(ride, seats, policy);
+            if (booked == 0) {
+                return 0;
+            }
+            rideRepository.recordSeatChange(ride);
+
+            // Für Bestätigungsseite speichern
+            bookingLedger.record(userId, ride, booked);
+            enqueue(BookingRecord.Type.BOOKED, userId, ride, booked);
+
+            return booked;
+        });
+    }
+
+    private static int reserve(Ride ride, int seats, SeatPolicy policy) {
+        if (policy == SeatPolicy.BEST_EFFORT) {
+            return ride.tryReserveUpTo(seats);
+        }
+        return ride.tryReserveSeats(seats) ? seats : 0;
+    }
+
+    /**
+     * Sammelbuchung: reserviert Plätze auf mehreren Fahrten in einem Aufruf.
+     *
+     * Alles oder nichts: Fehlt eine Fahrt oder hat sie zu wenige Plätze, werden
+     * die bereits reservierten Plätze wieder freigegeben und nichts gebucht.
+     * Mehrere Positionen für dieselbe Fahrt werden zusammengefasst. Die Indizes
+     * werden anschließend gemeinsam aktualisiert (ein Gruppen-Commit statt einer
+     * Sperre pro Platz).
+     *
+     * @param userId ID des buchenden Benutzers
+     * @param requests die einzelnen Positionen
+     * @return true wenn alle Positionen gebucht wurden
+     * @throws IllegalStateException wenn die Buchung gerade nicht gespeichert werden kann
+     */
+    public boolean bookRides(long userId, List<SeatRequest> requests) {
+        // Nach ID sortiert zusammenfassen
+        Map<Long, Integer> seatsByRide = new TreeMap<>();
+        for (SeatRequest request : requests) {
+            if (request.seats() <= 0) {
+                throw new IllegalArgumentException("Mindestens ein Platz pro Position: " + request);
+            }
+            seatsByRide.merge(request.rideId(), request.seats(), Integer::sum);
         }
 
-        // Plätze reduzieren (Simulation)
-        ride.setAvailableSeats(ride.getAvailableSeats() - 1);
+        long[] rideIds = seatsByRide.keySet().stream().mapToLong(Long::longValue).toArray();
+        awaitWriteCapacity();
+        return rideLocks.withLocks(rideIds, () -> {
+            List<Ride> reserved = new ArrayList<>(seatsByRide.size());
+            for (Map.Entry<Long, Integer> entry : seatsByRide.entrySet()) {
+                Optional<Ride> ride = rideRepository.findById(entry.getKey());
+                if (ride.isEmpty() || !ride.get().tryReserveSeats(entry.getValue())) {
+                    release(reserved, seatsByRide);
+                    return false;
+                }
+                reserved.add(ride.get());
+            }
+
+            rideRepository.recordSeatChanges(reserved);
+            for (Ride ride : reserved) {
+                int seats = seatsByRide.get(ride.getId());
+                bookingLedger.record(userId, ride, seats);
+                enqueue(BookingRecord.Type.BOOKED, userId, ride, seats);
+            }
+            return true;
+        });
+    }
+
+    private static void release(List<Ride> reserved, Map<Long, Integer> seatsByRide) {
+        for (Ride ride : reserved) {
+            ride.releaseSeats(seatsByRide.get(ride.getId()));
+        }
+    }
 
-        // Für Bestätigungsseite speichern
-        this.lastBookedRide = ride;
+    /**
+     * Reserviert Plätze für eine begrenzte Zeit, ohne sie schon zu buchen.
+     * Die Plätze sind sofort belegt und werden nach Ablauf automatisch freigegeben,
+     * falls die Reservierung nicht vorher bestätigt oder freigegeben wird. Gespeichert
+     * wird nur der Stand ohne Reservierungen; nach einem Neustart sind die Plätze frei.
+     *
+     * @return die Reservierung oder null, wenn nicht genug Plätze frei sind
+     * @throws IllegalStateException nach {@link #shutdown()}; es bleibt nichts reserviert
+     */
+    public SeatHold holdSeats(long userId, Ride ride, int seats, Duration holdTime) {
+        return rideLocks.withLock(ride.getId(), () -> {
+            if (!ride.tryHoldSeats(seats)) {
+                return null;
+            }
+            rideRepository.recordSeatChange(ride);
+
+            SeatHold hold = new SeatHold(userId, ride, seats);
+            try {
+                hold.setExpiry(holdTimer.schedule(() -> expireHold(hold), holdTime.toMillis(), TimeUnit.MILLISECONDS));
+            } catch (RuntimeException e) {
+                // Ohne Ablauf würden die Plätze nie wieder frei (z.B. nach shutdown)
+                ride.endHold(seats);
+                ride.releaseSeats(seats);
+                rideRepository.recordSeatChange(ride);
+                throw e;
+            }
+            return hold;
+        });
+    }
+
+    /**
+     * Wandelt eine Reservierung in eine Buchung um.
+     *
+     * @return true wenn gebucht, false wenn die Reservierung schon abgelaufen oder freigegeben ist
+     */
+    public boolean confirmHold(SeatHold hold) {
+        return confirmHold(hold, hold.getSeats(), SeatPolicy.ALL_OR_NOTHING) > 0;
+    }
+
+    /**
+     * Wandelt eine Reservierung in eine Buchung über {@code seats} Plätze um.
+     * Fehlende Plätze werden zusätzlich gebucht (gemäß {@code policy}), überzählige
+     * reservierte Plätze freigegeben.
+     *
+     * @return Anzahl der gebuchten Plätze; 0 wenn die Reservierung nicht mehr besteht
+     *         oder bei {@link SeatPolicy#ALL_OR_NOTHING} nicht genug Plätze frei sind
+     *         (die Reservierung bleibt dann bestehen)
+     * @throws IllegalStateException wenn die Buchung gerade nicht gespeichert werden kann
+     */
+    public int confirmHold(SeatHold hold, int seats, SeatPolicy policy) {
+        if (seats <= 0) {
+            throw new IllegalArgumentException("Mindestens ein Platz: " + seats);
+        }
+        awaitWriteCapacity();
+        Ride ride = hold.getRide();
+        return rideLocks.withLock(ride.getId(), () -> {
+            if (!hold.isHeld()) {
+                return 0;
+            }
+            int additional = seats - hold.getSeats();
+            int extra = additional > 0 ? reserve(ride, additional, policy) : 0;
+            if (additional > 0 && extra < additional && policy == SeatPolicy.ALL_OR_NOTHING) {
+                return 0;
+            }
+            if (!hold.finish(SeatHold.State.CONFIRMED)) {
+                // Nicht möglich unter der Sperre, aber zusätzliche Plätze sicherheitshalber zurückgeben
+                if (extra > 0) {
+                    freeSeats(ride, extra);
+                }
+                return 0;
+            }
+
+            // Die reservierten Plätze zählen ab jetzt als Buchung
+            ride.endHold(hold.getSeats());
+            int booked = hold.getSeats() + extra;
+            if (additional < 0) {
+                freeSeats(ride, -additional);
+                booked = seats;
+            } else {
+                rideRepository.recordSeatChange(ride);
+            }
+            bookingLedger.record(hold.getUserId(), ride, booked);
+            enqueue(BookingRecord.Type.BOOKED, hold.getUserId(), ride, booked);
+            return booked;
+        });
+    }
+
+    /**
+     * Gibt eine Reservierung vorzeitig frei (z.B. wenn der Benutzer die Details verlässt).
+     */
+    public void releaseHold(SeatHold hold) {
+        finishHold(hold, SeatHold.State.RELEASED);
+    }
 
+    private void expireHold(SeatHold hold) {
+        finishHold(hold, SeatHold.State.EXPIRED);
+    }
+
+    private void finishHold(SeatHold hold, SeatHold.State state) {
+        rideLocks.withLock(hold.getRide().getId(), () -> {
+            if (hold.finish(state)) {
+                hold.getRide().endHold(hold.getSeats());
+                freeSeats(hold.getRide(), hold.getSeats());
+            }
+        });
+    }
+
+    /**
+     * Storniert die neueste Buchung des Benutzers für die Fahrt und gibt alle ihre
+     * Plätze frei. Steht jemand auf der Warteliste, bekommt er die Plätze direkt.
+     *
+     * @return true wenn der Benutzer die Fahrt gebucht hatte
+     * @throws IllegalStateException wenn die Stornierung gerade nicht gespeichert werden kann
+     */
+    public boolean cancelBooking(long userId, Ride ride) {
+        awaitWriteCapacity();
+        return rideLocks.withLock(ride.getId(), () -> {
+            int seats = bookingLedger.remove(userId, ride);
+            if (seats == 0) {
+                return false;
+            }
+            enqueue(BookingRecord.Type.CANCELLED, userId, ride, seats);
+            freeSeats(ride, seats);
+            return true;
+        });
+    }
+
+    /**
+     * Setzt den Benutzer auf die Warteliste einer (ausgebuchten) Fahrt.
+     * Sobald ein Platz frei wird, wird er in Reihenfolge der Anmeldung gebucht
+     * und {@link WaitlistEntry#assignment()} abgeschlossen.
+     *
+     * @throws IllegalStateException wenn Buchungen gerade nicht gespeichert werden können
+     */
+    public WaitlistEntry joinWaitlist(long userId, Ride ride) {
+        awaitWriteCapacity();
+        return rideLocks.withLock(ride.getId(), () -> {
+            WaitlistEntry enqueued = waitlist.enqueue(userId, ride);
+            // Falls gerade ein Platz frei wurde, bevor der Eintrag sichtbar war
+            assignFreeSeats(ride);
+            return enqueued;
+        });
+    }
+
+    /**
+     * Gibt freie Plätze zurück: Zuerst an Wartende (FIFO, ohne Umweg über den
+     * Sitzzähler, damit keine neue Buchung vordrängeln kann), der Rest an die Fahrt.
+     */
+    private void freeSeats(Ride ride, int seats) {
+        int remaining = seats;
+        while (remaining > 0 && assignToNextWaiter(ride)) {
+            remaining--;
+        }
+        if (remaining > 0) {
+            ride.releaseSeats(remaining);
+        }
+        // Auch wenn alles an Wartende ging: aus einer beendeten Reservierung wurde eine
+        // Buchung, der gespeicherte Stand ändert sich also
+        rideRepository.recordSeatChange(ride);
+        if (remaining > 0) {
+            // Wer sich zwischen Prüfung und Freigabe eingereiht hat, soll nicht weiter warten
+            assignFreeSeats(ride);
+        }
+    }
+
+    /**
+     * Teilt freie Plätze der Fahrt an Wartende zu, solange beides vorhanden ist.
+     *
+     * Zusammen mit der Reihenfolge in {@link #freeSeats} (erst freigeben, dann Warteliste
+     * prüfen) und {@link #joinWaitlist} (erst einreihen, dann Plätze prüfen) sieht
+     * mindestens eine Seite die andere: Niemand wartet, während ein Platz frei ist.
+     */
+    private void assignFreeSeats(Ride ride) {
+        boolean changed = false;
+        while (waitlist.hasWaiting(ride.getId()) && ride.tryReserveSeats(1)) {
+            changed = true;
+            if (!assignToNextWaiter(ride)) {
+                // Nur abgebrochene Einträge übrig
+                ride.releaseSeats(1);
+                break;
+            }
+        }
+        if (changed) {
+            rideRepository.recordSeatChange(ride);
+        }
+    }
+
+    /**
+     * Bucht einen bereits abgezogenen Platz für den nächsten Wartenden.
+     *
+     * @return false wenn niemand mehr wartet
+     */
+    private boolean assignToNextWaiter(Ride ride) {
+        WaitlistEntry next = waitlist.claimNext(ride.getId());
+        if (next == null) {
+            return false;
+        }
+        bookingLedger.record(next.getUserId(), ride, 1);
+        enqueue(BookingRecord.Type.BOOKED, next.getUserId(), ride, 1);
+        next.notifyAssigned();
         return true;
     }
 
     /**
-     * Gibt die zuletzt gebuchte Fahrt zurück.
+     * Wartet vor einer Buchung (ohne Sperren) auf Platz im Write-Behind-Puffer.
+     * Freigaben von Reservierungen prüfen das nicht: Sie dürfen nicht scheitern.
+     */
+    private void awaitWriteCapacity() {
+        if (writeBehind != null
+                && !writeBehind.awaitCapacity(WRITE_BEHIND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException(
+                    "Buchungen können gerade nicht gespeichert werden, bitte später erneut versuchen");
+        }
+    }
+
+    /**
+     * Gibt die Kennzahlen des Write-Behind zurück oder null ohne Datenbank.
+     */
+    public WriteBehindStats getWriteBehindStats() {
+        return writeBehind == null ? null : writeBehind.getStats();
+    }
+
+    /**
+     * Schreibt noch ausstehende Buchungen in die Datenbank (beim Beenden der Anwendung).
+     */
+    public void shutdown() {
+        holdTimer.stop();
+        if (writeBehind != null) {
+            writeBehind.close();
+        }
+    }
+
+    /**
+     * Legt einen bereits im Speicher ausgeführten Vorgang in das Write-Behind.
+     *
+     * Nur unter der Sperre der Fahrt aufrufen: So ist die Reihenfolge im Puffer (und
+     * damit in der Datenbank) pro Fahrt dieselbe wie im Speicher, z.B. eine Buchung
+     * immer vor ihrer Stornierung. Auf Platz im Puffer wurde vorher schon ohne Sperre
+     * gewartet (siehe {@link #awaitWriteCapacity()}); das Einreihen selbst blockiert nie.
+     */
+    private void enqueue(BookingRecord.Type type, long userId, Ride ride, int seats) {
+        if (writeBehind != null) {
+            writeBehind.enqueue(type, userId, ride.getId(), seats);
+        }
+    }
+
+    /**
+     * Gibt die zuletzt gebuchte Fahrt des Benutzers zurück oder null.
      * Wird für die Buchungsbestätigung verwendet (Page 131).
      */
-    public Ride getLastBookedRide() {
-        return lastBookedRide;
+    public Ride getLastBookedRide(long userId) {
+        return bookingLedger.lastBooking(userId);
+    }
+
+    /**
+     * Gibt die letzten Buchungen des Benutzers zurück, neueste zuerst ("Previous Rides").
+     */
+    public List<Ride> getBookingHistory(long userId) {
+        return bookingLedger.history(userId);
     }
 
     /**
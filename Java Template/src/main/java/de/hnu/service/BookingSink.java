@@ -0,0 +1,23 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+
+import java.util.List;
+
+/**
+ * Ziel des Write-Behind für Buchungen, z.B. die Datenbank.
+ *
+ * Ein Batch muss atomar geschrieben werden (ganz oder gar nicht). Nach einem Fehler
+ * wird derselbe Batch erneut übergeben, bereits geschriebene Vorgänge (gleiche
+ * Sequenznummer) müssen daher ignoriert werden.
+ */
+public interface BookingSink {
+
+    /**
+     * Gibt die höchste bereits geschriebene Sequenznummer zurück (0 wenn leer).
+     * Neue Vorgänge werden danach fortlaufend nummeriert.
+     */
+    long lastSequence() throws Exception;
+
+    void write(List<BookingRecord> batch) throws Exception;
+}
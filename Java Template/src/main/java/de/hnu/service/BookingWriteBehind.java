@@ -0,0 +1,225 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchrones Write-Behind für Buchungen.
+ *
+ * Buchungen werden zuerst im Speicher ausgeführt und dann nur in einen begrenzten
+ * Ringpuffer gelegt; der Benutzer wartet nicht auf den Datenbank-Commit. Ein
+ * Hintergrund-Thread schreibt den Puffer in Batches in einen {@link BookingSink}.
+ *
+ * Reihenfolge: Es gibt genau einen schreibenden Thread. Er nummeriert die Vorgänge
+ * in Puffer-Reihenfolge und schreibt einen Batch so lange erneut (mit denselben
+ * Nummern), bis er gelungen ist; erst dann folgt der nächste. Die Datenbank sieht
+ * also eine lückenlose, geordnete Folge, und ein wiederholter Batch wird über die
+ * Sequenznummer erkannt.
+ *
+ * Gegendruck: Ist der Puffer voll, wartet eine Buchung vorher höchstens eine begrenzte
+ * Zeit auf Platz ({@link #awaitCapacity}) und wird sonst abgelehnt. So werden weder
+ * Vorgänge verworfen noch wächst der Speicher unbegrenzt, und der Aufrufer (z.B. der
+ * JavaFX-Thread) hängt bei einer langsamen Datenbank nicht fest. Warten und Einreihen
+ * sind getrennt: {@link #enqueue} blockiert nie. Die Kapazität ist deshalb eine weiche
+ * Grenze; Vorgänge, die beim Freigeben von Plätzen zusätzlich entstehen (Warteliste,
+ * abgelaufene Reservierungen), werden immer angenommen.
+ */
+public class BookingWriteBehind implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long POLL_MILLIS = 100;
+    private static final long MIN_RETRY_MILLIS = 100;
+    private static final long MAX_RETRY_MILLIS = 10_000;
+    // Versuche pro Batch nach dem Schließen, damit das Beenden nicht ewig hängt
+    private static final int ATTEMPTS_WHEN_CLOSING = 5;
+
+    private final BookingSink sink;
+    private final BlockingQueue<BookingRecord> buffer = new LinkedBlockingQueue<>();
+    private final int capacity;
+    private final int batchSize;
+    // Wird benachrichtigt, sobald der Schreib-Thread Vorgänge aus dem Puffer genommen hat
+    private final Object capacityMonitor = new Object();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    // Kennzahlen
+    private final AtomicLong flushedBatches = new AtomicLong();
+    private final AtomicLong flushedRecords = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong backpressureWaits = new AtomicLong();
+    private final AtomicLong rejectedSubmits = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    public BookingWriteBehind(BookingSink sink) {
+        this(sink, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public BookingWriteBehind(BookingSink sink, int capacity, int batchSize) {
+        this.sink = sink;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flusher = new Thread(this::run, "booking-write-behind");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Wartet höchstens {@code timeout}, bis der Puffer unter der Kapazität liegt.
+     * Vor jeder neuen Buchung aufrufen, ohne dabei Sperren zu halten.
+     *
+     * @return false wenn der Puffer weiterhin voll ist (die Buchung sollte abgelehnt werden)
+     */
+    public boolean awaitCapacity(long timeout, TimeUnit unit) {
+        checkOpen();
+        if (buffer.size() < capacity) {
+            return true;
+        }
+        backpressureWaits.incrementAndGet();
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (capacityMonitor) {
+            while (buffer.size() >= capacity) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejectedSubmits.incrementAndGet();
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(capacityMonitor, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    rejectedSubmits.incrementAndGet();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Legt einen Vorgang zum Schreiben in den Puffer. Blockiert nie.
+     * Die Reihenfolge der Aufrufe ist die Reihenfolge in der Datenbank.
+     */
+    public void enqueue(BookingRecord.Type type, long userId, long rideId, int seats) {
+        checkOpen();
+        buffer.add(new BookingRecord(0, type, userId, rideId, seats, Instant.now()));
+    }
+
+    private void checkOpen() {
+        if (!running) {
+            throw new IllegalStateException("Write-Behind wurde geschlossen");
+        }
+    }
+
+    /**
+     * Gibt die aktuellen Kennzahlen zurück.
+     */
+    public WriteBehindStats getStats() {
+        long batches = flushedBatches.get();
+        return new WriteBehindStats(batches, flushedRecords.get(), failedFlushes.get(),
+                backpressureWaits.get(), rejectedSubmits.get(), buffer.size(), toMillis(lastFlushNanos),
+                batches == 0 ? 0 : toMillis(totalFlushNanos.get()) / batches,
+                toMillis(maxFlushNanos.get()));
+    }
+
+    /**
+     * Nimmt keine Vorgänge mehr an und wartet, bis der Puffer geschrieben ist.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long sequence = retry(sink::lastSequence);
+        List<BookingRecord> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            BookingRecord first;
+            try {
+                first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            buffer.drainTo(batch, batchSize - 1);
+            synchronized (capacityMonitor) {
+                capacityMonitor.notifyAll();
+            }
+            for (BookingRecord record : batch) {
+                record.setSequence(++sequence);
+            }
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<BookingRecord> batch) {
+        retry(() -> {
+            long start = System.nanoTime();
+            sink.write(batch);
+            long duration = System.nanoTime() - start;
+
+            lastFlushNanos = duration;
+            totalFlushNanos.addAndGet(duration);
+            maxFlushNanos.accumulateAndGet(duration, Math::max);
+            flushedRecords.addAndGet(batch.size());
+            flushedBatches.incrementAndGet();
+            return null;
+        });
+    }
+
+    private interface Action<T> {
+        T run() throws Exception;
+    }
+
+    /**
+     * Wiederholt eine Aktion mit wachsender Pause, bis sie gelingt.
+     * Nach dem Schließen nur noch begrenzt oft.
+     */
+    private <T> T retry(Action<T> action) {
+        long delay = MIN_RETRY_MILLIS;
+        int attemptsWhenClosing = 0;
+        while (true) {
+            try {
+                return action.run();
+            } catch (Exception e) {
+                failedFlushes.incrementAndGet();
+                if (!running && ++attemptsWhenClosing >= ATTEMPTS_WHEN_CLOSING) {
+                    throw new IllegalStateException("Write-Behind konnte nicht geschrieben werden", e);
+                }
+                sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_MILLIS);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Beim Schließen sofort erneut versuchen
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
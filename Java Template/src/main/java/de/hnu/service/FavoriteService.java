@@ -4,23 +4,46 @@ import de.hnu.model.Ride;
 import de.hnu.model.User;
 import de.hnu.repository.RideRepository;
 import de.hnu.repository.UserRepository;
+import de.hnu.util.CompressedBitmap;
+import de.hnu.util.LongIntMap;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Service für Favoriten-Verwaltung.
  * Ermöglicht das Hinzufügen und Entfernen von Fahrten aus den Favoriten.
  *
  * Entspricht der "Favorite Rides" Funktion (Page 118).
+ *
+ * Pro Benutzer gibt es einen Index Fahrt-ID → Position in der (JPA-)Favoritenliste.
+ * Prüfen, Hinzufügen und Entfernen kosten so O(1) statt einer Suche durch die Liste;
+ * beim Entfernen rückt der letzte Favorit an die frei gewordene Stelle.
+ *
+ * Zusätzlich gibt es einen umgekehrten Index Fahrt-ID → Benutzer-IDs als komprimierte
+ * Bitmap. Damit lässt sich ohne Durchlauf aller Benutzer beantworten, wer eine Fahrt
+ * (oder irgendeine Fahrt einer Strecke) favorisiert hat, z.B. um diese Benutzer über
+ * geänderte Plätze zu benachrichtigen. Die Bitmap kennt nur IDs bis
+ * {@link Integer#MAX_VALUE}; Benutzer mit größerer ID fehlen im umgekehrten Index,
+ * ihre eigenen Favoriten funktionieren aber normal.
  */
 public class FavoriteService {
 
     private final UserRepository userRepository;
     private final RideRepository rideRepository;
+    private final Map<Long, FavoriteSet> favoriteSets = new ConcurrentHashMap<>();
+    // Fahrt-ID → Benutzer, die sie favorisiert haben; jede Bitmap sperrt sich selbst
+    private final Map<Long, CompressedBitmap> favoritedBy = new ConcurrentHashMap<>();
 
     public FavoriteService(UserRepository userRepository, RideRepository rideRepository) {
         this.userRepository = userRepository;
         this.rideRepository = rideRepository;
+        // Vorhandene Favoriten aller Benutzer in den umgekehrten Index aufnehmen
+        for (User user : userRepository.findAll()) {
+            favoritesOf(user);
+        }
         initializeDefaultFavorites();
     }
 
@@ -31,57 +54,254 @@ public class FavoriteService {
     private void initializeDefaultFavorites() {
         User currentUser = userRepository.getCurrentUser();
         List<Ride> allRides = rideRepository.findAll();
+        FavoriteSet favorites = favoritesOf(currentUser);
 
         // Favoriten aus Mockup: Thomas Schmidt (ID 2) und Erika Mustermann (ID 4)
         allRides.stream()
                 .filter(r -> r.getDriverName().equals("Thomas Schmidt")
                           || r.getDriverName().equals("Erika Mustermann"))
-                .forEach(ride -> currentUser.getFavorites().add(ride));
+                .forEach(favorites::add);
     }
 
     /**
      * Gibt die Favoriten des aktuellen Benutzers zurück.
      */
     public List<Ride> getFavorites() {
-        User currentUser = userRepository.getCurrentUser();
-        return currentUser.getFavorites();
+        return getFavorites(userRepository.getCurrentUser().getId());
     }
 
     /**
-     * Fügt eine Fahrt zu den Favoriten hinzu.
+     * Gibt die Favoriten eines Benutzers zurück.
+     */
+    public List<Ride> getFavorites(long userId) {
+        return findUser(userId).getFavorites();
+    }
+
+    /**
+     * Fügt eine Fahrt zu den Favoriten des aktuellen Benutzers hinzu.
      *
      * @return true wenn erfolgreich hinzugefügt, false wenn bereits vorhanden
      */
     public boolean addFavorite(Ride ride) {
-        User currentUser = userRepository.getCurrentUser();
-
-        // Prüfen ob bereits in Favoriten
-        boolean alreadyFavorite = currentUser.getFavorites().stream()
-                .anyMatch(r -> r.getId() == ride.getId());
+        return addFavorite(userRepository.getCurrentUser().getId(), ride);
+    }
 
-        if (!alreadyFavorite) {
-            currentUser.getFavorites().add(ride);
-            return true;
-        }
-        return false;
+    /**
+     * Fügt eine Fahrt zu den Favoriten eines Benutzers hinzu.
+     *
+     * Prüfen und Hinzufügen passieren in einem Schritt, damit ein doppelter
+     * Klick die Fahrt nicht zweimal hinzufügt.
+     *
+     * @return true wenn erfolgreich hinzugefügt, false wenn bereits vorhanden
+     */
+    public boolean addFavorite(long userId, Ride ride) {
+        return favoritesOf(findUser(userId)).add(ride);
     }
 
     /**
-     * Entfernt eine Fahrt aus den Favoriten.
+     * Entfernt eine Fahrt aus den Favoriten des aktuellen Benutzers.
      *
      * @return true wenn erfolgreich entfernt, false wenn nicht vorhanden
      */
     public boolean removeFavorite(Ride ride) {
-        User currentUser = userRepository.getCurrentUser();
-        return currentUser.getFavorites().removeIf(r -> r.getId() == ride.getId());
+        return removeFavorite(userRepository.getCurrentUser().getId(), ride);
     }
 
     /**
-     * Prüft ob eine Fahrt in den Favoriten ist.
+     * Entfernt eine Fahrt aus den Favoriten eines Benutzers.
+     *
+     * @return true wenn erfolgreich entfernt, false wenn nicht vorhanden
+     */
+    public boolean removeFavorite(long userId, Ride ride) {
+        return favoritesOf(findUser(userId)).remove(ride.getId());
+    }
+
+    /**
+     * Prüft ob eine Fahrt in den Favoriten des aktuellen Benutzers ist.
      */
     public boolean isFavorite(Ride ride) {
-        User currentUser = userRepository.getCurrentUser();
-        return currentUser.getFavorites().stream()
-                .anyMatch(r -> r.getId() == ride.getId());
+        return isFavorite(userRepository.getCurrentUser().getId(), ride);
+    }
+
+    /**
+     * Prüft ob eine Fahrt in den Favoriten eines Benutzers ist.
+     */
+    public boolean isFavorite(long userId, Ride ride) {
+        return favoritesOf(findUser(userId)).contains(ride.getId());
+    }
+
+    /**
+     * Gibt die IDs der Benutzer zurück, die die Fahrt favorisiert haben (Kopie).
+     */
+    public CompressedBitmap getUsersWhoFavorited(Ride ride) {
+        CompressedBitmap users = favoritedBy.get(ride.getId());
+        if (users == null) {
+            return new CompressedBitmap();
+        }
+        synchronized (users) {
+            return users.copy();
+        }
+    }
+
+    /**
+     * Gibt die IDs der Benutzer zurück, die mindestens eine der Fahrten favorisiert haben.
+     */
+    public CompressedBitmap getUsersWhoFavoritedAny(Collection<Ride> rides) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Ride ride : rides) {
+            CompressedBitmap users = favoritedBy.get(ride.getId());
+            if (users != null) {
+                synchronized (users) {
+                    result.or(users);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die IDs der Benutzer zurück, die irgendeine Fahrt der Strecke favorisiert haben.
+     */
+    public CompressedBitmap getUsersWhoFavoritedRoute(String origin, String destination) {
+        return getUsersWhoFavoritedAny(rideRepository.findByRoute(origin, destination));
+    }
+
+    /**
+     * Gibt den Favoriten-Index des Benutzers zurück. Wurde die Liste des Benutzers
+     * ersetzt (z.B. {@code setFavorites}), wird der Index neu aufgebaut.
+     */
+    private FavoriteSet favoritesOf(User user) {
+        List<Ride> list = user.getFavorites();
+        FavoriteSet set = favoriteSets.get(user.getId());
+        if (set != null && set.list == list) {
+            return set;
+        }
+        // Atomar anlegen, damit nie zwei Indizes dieselbe Liste verändern
+        return favoriteSets.compute(user.getId(), (id, existing) -> {
+            if (existing != null && existing.list == list) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.unindex();
+            }
+            return new FavoriteSet(id, list);
+        });
+    }
+
+    private User findUser(long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("Unbekannter Benutzer: " + userId));
+    }
+
+    private void indexFavorite(long userId, long rideId) {
+        if (!fitsBitmap(userId)) {
+            return;
+        }
+        int user = (int) userId;
+        favoritedBy.compute(rideId, (id, users) -> {
+            CompressedBitmap result = users != null ? users : new CompressedBitmap();
+            synchronized (result) {
+                result.add(user);
+            }
+            return result;
+        });
+    }
+
+    private void unindexFavorite(long userId, long rideId) {
+        if (!fitsBitmap(userId)) {
+            return;
+        }
+        int user = (int) userId;
+        favoritedBy.computeIfPresent(rideId, (id, users) -> {
+            synchronized (users) {
+                users.remove(user);
+                // Leere Bitmaps nicht aufbewahren
+                return users.isEmpty() ? null : users;
+            }
+        });
+    }
+
+    /**
+     * Prüft ob die Benutzer-ID in den umgekehrten Index passt. Größere IDs werden dort
+     * übersprungen statt abgelehnt, sonst würde schon der Start mit einem solchen
+     * Benutzer scheitern.
+     */
+    private static boolean fitsBitmap(long userId) {
+        return userId >= 0 && userId <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Favoritenliste eines Benutzers mit Index ID → Position.
+     *
+     * Alle Zugriffe sperren nur diesen Benutzer; Favoriten verschiedener
+     * Benutzer behindern sich nicht. Der umgekehrte Index wird unter derselben
+     * Sperre mitgeführt, damit er nie von der Liste abweicht.
+     *
+     * Bewusst nicht die Fahrt-Sperren aus {@link RideRepository#getRideLocks()}: Geändert
+     * wird die Liste eines Benutzers, und zwei verschiedene Fahrten (zwei Streifen)
+     * könnten sie sonst gleichzeitig ändern. Favoriten teilen keinen Zustand mit
+     * Buchungen, eine gemeinsame Sperre mit dem BookingService bringt daher nichts.
+     */
+    private final class FavoriteSet {
+
+        private static final int MISSING = -1;
+
+        final List<Ride> list;
+        private final long userId;
+        private final LongIntMap positions;
+
+        FavoriteSet(long userId, List<Ride> list) {
+            this.userId = userId;
+            this.list = list;
+            this.positions = new LongIntMap(list.size());
+            // Doppelte Fahrten (z.B. aus alten Daten) entfernen: Der Index kennt pro Fahrt
+            // nur eine Position, ein zweiter Eintrag würde beim Entfernen übrig bleiben
+            int size = 0;
+            for (int i = 0; i < list.size(); i++) {
+                Ride ride = list.get(i);
+                if (positions.putIfAbsent(ride.getId(), size)) {
+                    list.set(size++, ride);
+                    indexFavorite(userId, ride.getId());
+                }
+            }
+            if (size < list.size()) {
+                list.subList(size, list.size()).clear();
+            }
+        }
+
+        synchronized void unindex() {
+            for (Ride ride : list) {
+                unindexFavorite(userId, ride.getId());
+            }
+        }
+
+        synchronized boolean contains(long rideId) {
+            return positions.containsKey(rideId);
+        }
+
+        synchronized boolean add(Ride ride) {
+            if (!positions.putIfAbsent(ride.getId(), list.size())) {
+                return false;
+            }
+            list.add(ride);
+            indexFavorite(userId, ride.getId());
+            return true;
+        }
+
+        synchronized boolean remove(long rideId) {
+            int position = positions.remove(rideId, MISSING);
+            if (position == MISSING) {
+                return false;
+            }
+            // Letzten Favoriten an die Lücke setzen, damit nichts verschoben werden muss
+            int last = list.size() - 1;
+            Ride moved = list.remove(last);
+            if (position != last) {
+                list.set(position, moved);
+                positions.put(moved.getId(), position);
+            }
+            unindexFavorite(userId, rideId);
+            return true;
+        }
     }
 }
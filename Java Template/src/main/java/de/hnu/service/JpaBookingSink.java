@@ -0,0 +1,58 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+
+/**
+ * Schreibt Buchungsvorgänge über JPA in die Datenbank (Derby), ein Batch pro Transaktion.
+ *
+ * Verwendet einen eigenen EntityManager aus derselben Factory wie der
+ * {@code CarSharingService}, da er aus dem Hintergrund-Thread des Write-Behind
+ * aufgerufen wird und nicht an einer Spring-Transaktion teilnimmt.
+ */
+public class JpaBookingSink implements BookingSink {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public JpaBookingSink(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public long lastSequence() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            Long max = em.createQuery("SELECT MAX(b.sequence) FROM BookingRecord b", Long.class)
+                    .getSingleResult();
+            return max == null ? 0 : max;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Override
+    public void write(List<BookingRecord> batch) {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            for (BookingRecord record : batch) {
+                // Wiederholter Batch nach Fehler: bereits gespeicherte Vorgänge überspringen
+                if (em.find(BookingRecord.class, record.getSequence()) == null) {
+                    em.persist(record);
+                }
+            }
+            tx.commit();
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package de.hnu.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Suchkriterien aus der "Find a Ride" Maske (Page 115).
+ *
+ * Wird von der Suche an die "Available Rides" Ansicht weitergereicht.
+ * Ohne Datum wird nicht nach Abfahrt gefiltert; ohne Uhrzeit gilt der ganze Tag,
+ * mit Uhrzeit alle Abfahrten ab dieser Uhrzeit bis Tagesende.
+ *
+ * @param from Startort (kann leer sein)
+ * @param to Zielort (kann leer sein)
+ * @param date Abfahrtsdatum (kann null sein)
+ * @param time früheste Abfahrtszeit (kann null sein)
+ */
+public record RideSearchQuery(String from, String to, LocalDate date, LocalTime time) {
+
+    /**
+     * Prüft ob nach Abfahrt gefiltert werden soll.
+     */
+    public boolean hasDepartureWindow() {
+        return date != null;
+    }
+
+    /**
+     * Beginn des Abfahrtsfensters.
+     */
+    public LocalDateTime departureFrom() {
+        return date.atTime(time != null ? time : LocalTime.MIN);
+    }
+
+    /**
+     * Ende des Abfahrtsfensters (Tagesende).
+     */
+    public LocalDateTime departureTo() {
+        return date.atTime(LocalTime.MAX);
+    }
+}
@@ -1,10 +1,18 @@
 package de.hnu.service;
 
 import de.hnu.model.Ride;
+import de.hnu.repository.RidePage;
 import de.hnu.repository.RideRepository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service für Fahrt-bezogene Geschäftslogik.
@@ -14,6 +22,14 @@ import java.util.Optional;
  */
 public class RideService {
 
+    // Annahmen für die Umstiegsplanung, da Fahrten keine Ankunftszeit haben
+    private static final int AVERAGE_SPEED_KMH = 80;
+    private static final Duration MIN_TRANSFER_TIME = Duration.ofMinutes(15);
+    private static final Duration MAX_TRANSFER_WAIT = Duration.ofHours(6);
+
+    private static final Comparator<Ride> BY_DEPARTURE =
+            Comparator.comparing(RideService::departureOf);
+
     private final RideRepository rideRepository;
 
     public RideService(RideRepository rideRepository) {
@@ -42,6 +58,61 @@ public class RideService {
         return rideRepository.searchRides(from, to);
     }
 
+    /**
+     * Sucht Fahrten nach Kriterien mit Abfahrt in einem Zeitfenster,
+     * z.B. "ab Ulm morgen zwischen 6 und 9 Uhr".
+     * Das Ergebnis ist nach Abfahrt sortiert.
+     *
+     * @param from Startort (kann leer sein)
+     * @param to Zielort (kann leer sein)
+     * @param departureFrom früheste Abfahrt (null = ohne untere Grenze)
+     * @param departureTo späteste Abfahrt (null = ohne obere Grenze)
+     * @return Liste der passenden Fahrten
+     */
+    public List<Ride> searchRides(String from, String to,
+                                  LocalDateTime departureFrom, LocalDateTime departureTo) {
+        return rideRepository.searchRides(from, to, departureFrom, departureTo);
+    }
+
+    /**
+     * Sucht Fahrten anhand der Kriterien aus der Suchmaske.
+     */
+    public List<Ride> searchRides(RideSearchQuery query) {
+        if (query.hasDepartureWindow()) {
+            return searchRides(query.from(), query.to(), query.departureFrom(), query.departureTo());
+        }
+        return searchRides(query.from(), query.to());
+    }
+
+    /**
+     * Gibt eine Seite aller Fahrten zurück.
+     *
+     * @param cursor {@link RidePage#FIRST} oder der Cursor der vorherigen Seite
+     * @param pageSize maximale Anzahl Fahrten pro Seite
+     */
+    public RidePage getRidesPage(long cursor, int pageSize) {
+        return rideRepository.findPage(null, null, cursor, pageSize);
+    }
+
+    /**
+     * Sucht Fahrten seitenweise nach Start- und Zielort.
+     * Die erste Seite ist unabhängig von der Anzahl der Treffer sofort verfügbar.
+     *
+     * @param cursor {@link RidePage#FIRST} oder der Cursor der vorherigen Seite
+     * @param pageSize maximale Anzahl Fahrten pro Seite
+     */
+    public RidePage searchRidesPage(String from, String to, long cursor, int pageSize) {
+        return rideRepository.findPage(from, to, cursor, pageSize);
+    }
+
+    /**
+     * Sucht Fahrten nach Start- und Zielort als lazy Stream.
+     * Treffer werden erst beim Konsumieren ermittelt.
+     */
+    public Stream<Ride> streamRides(String from, String to) {
+        return rideRepository.stream(from, to, RidePage.FIRST);
+    }
+
     /**
      * Findet eine Fahrt anhand der ID.
      * Wird für die Detail-Ansicht verwendet (Page 123).
@@ -49,4 +120,113 @@ public class RideService {
     public Optional<Ride> getRideById(long id) {
         return rideRepository.findById(id);
     }
+
+    /**
+     * Sucht Verbindungen mit höchstens einem Umstieg, z.B. Augsburg → Ulm → Köln.
+     *
+     * Die Suche läuft über den Städte-Graph des Repositories: Von jeder passenden
+     * Startstadt aus werden nur deren direkte Ziele und deren Ziele betrachtet, und
+     * die Fahrten je Strecke kommen aus dem Routen-Index. Der Aufwand hängt damit vom
+     * Grad der beteiligten Städte ab, nicht von der Gesamtzahl der Fahrten.
+     *
+     * Ein Umstieg ist möglich, wenn die zweite Fahrt frühestens 15 Minuten nach der
+     * geschätzten Ankunft der ersten und höchstens 6 Stunden danach abfährt.
+     * Fahrten ohne Datum werden nicht berücksichtigt.
+     *
+     * @param from Startort (Teilstring, wie bei der Suche)
+     * @param to Zielort (Teilstring, wie bei der Suche)
+     * @return Verbindungen sortiert nach Ankunft, Direktverbindungen bei Gleichstand zuerst
+     */
+    public List<RouteConnection> findConnections(String from, String to) {
+        List<RouteConnection> connections = new ArrayList<>();
+        if (from == null || from.isEmpty() || to == null || to.isEmpty()) {
+            return connections;
+        }
+
+        Set<String> targets = new HashSet<>(rideRepository.findCities(to));
+        for (String origin : rideRepository.findCities(from)) {
+            for (String stop : rideRepository.findDestinations(origin)) {
+                List<Ride> firstLegs = withDeparture(rideRepository.findByRoute(origin, stop));
+
+                // Direktverbindungen
+                if (targets.contains(stop)) {
+                    for (Ride ride : firstLegs) {
+                        connections.add(new RouteConnection(List.of(ride)));
+                    }
+                }
+
+                // Verbindungen mit Umstieg in "stop"
+                for (String destination : rideRepository.findDestinations(stop)) {
+                    if (!targets.contains(destination) || destination.equals(origin)) {
+                        continue;
+                    }
+                    List<Ride> secondLegs = withDeparture(rideRepository.findByRoute(stop, destination));
+                    secondLegs.sort(BY_DEPARTURE);
+                    for (Ride first : firstLegs) {
+                        addTransfers(connections, first, secondLegs);
+                    }
+                }
+            }
+        }
+
+        connections.sort(Comparator.comparing(RouteConnection::arrival)
+                .thenComparing(RouteConnection::transfers));
+        return connections;
+    }
+
+    /**
+     * Ergänzt alle zweiten Fahrten, die im Umstiegsfenster nach {@code first} abfahren.
+     * {@code secondLegs} ist nach Abfahrt sortiert, daher reicht eine binäre Suche.
+     */
+    private static void addTransfers(List<RouteConnection> connections, Ride first,
+                                     List<Ride> secondLegs) {
+        LocalDateTime earliest = estimateArrival(first).plus(MIN_TRANSFER_TIME);
+        LocalDateTime latest = estimateArrival(first).plus(MAX_TRANSFER_WAIT);
+
+        int low = 0;
+        int high = secondLegs.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departureOf(secondLegs.get(mid)).isBefore(earliest)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < secondLegs.size(); i++) {
+            Ride second = secondLegs.get(i);
+            if (departureOf(second).isAfter(latest)) {
+                break;
+            }
+            connections.add(new RouteConnection(List.of(first, second)));
+        }
+    }
+
+    private static List<Ride> withDeparture(List<Ride> rides) {
+        List<Ride> result = new ArrayList<>(rides.size());
+        for (Ride ride : rides) {
+            if (ride.getDate() != null) {
+                result.add(ride);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Abfahrt einer Fahrt als Zeitpunkt (ohne Uhrzeit: Tagesbeginn).
+     */
+    static LocalDateTime departureOf(Ride ride) {
+        return ride.getTime() != null
+                ? ride.getDate().atTime(ride.getTime())
+                : ride.getDate().atStartOfDay();
+    }
+
+    /**
+     * Schätzt die Ankunft aus Abfahrt und Distanz bei
+     * {@value #AVERAGE_SPEED_KMH} km/h Durchschnittsgeschwindigkeit.
+     */
+    static LocalDateTime estimateArrival(Ride ride) {
+        long minutes = Math.round(ride.getDistanceKm() * 60.0 / AVERAGE_SPEED_KMH);
+        return departureOf(ride).plusMinutes(minutes);
+    }
 }
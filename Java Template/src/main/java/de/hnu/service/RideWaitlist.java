@@ -0,0 +1,56 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * FIFO-Wartelisten pro Fahrt.
+ *
+ * Jede Fahrt hat eine eigene lock-freie Queue; Einreihen und Entnehmen kosten O(1),
+ * auch bei tausenden Wartenden. Abgebrochene Einträge bleiben liegen und werden
+ * beim Entnehmen übersprungen.
+ */
+public class RideWaitlist {
+
+    private final Map<Long, Queue<WaitlistEntry>> queues = new ConcurrentHashMap<>();
+
+    /**
+     * Reiht einen Benutzer am Ende der Warteliste der Fahrt ein.
+     */
+    WaitlistEntry enqueue(long userId, Ride ride) {
+        WaitlistEntry entry = new WaitlistEntry(userId, ride);
+        queues.computeIfAbsent(ride.getId(), id -> new ConcurrentLinkedQueue<>()).add(entry);
+        return entry;
+    }
+
+    /**
+     * Entnimmt den ältesten noch wartenden Eintrag und beansprucht ihn.
+     *
+     * @return der beanspruchte Eintrag oder null, wenn niemand mehr wartet
+     */
+    WaitlistEntry claimNext(long rideId) {
+        Queue<WaitlistEntry> queue = queues.get(rideId);
+        if (queue == null) {
+            return null;
+        }
+        WaitlistEntry entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry.claim()) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Prüft ob jemand in der Warteliste steht (abgebrochene Einträge können mitzählen).
+     */
+    boolean hasWaiting(long rideId) {
+        Queue<WaitlistEntry> queue = queues.get(rideId);
+        return queue != null && !queue.isEmpty();
+    }
+}
@@ -0,0 +1,56 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Eine Verbindung aus einer oder zwei Fahrten (mit Umstieg).
+ * Ergebnis der Routensuche in {@link RideService#findConnections(String, String)}.
+ *
+ * @param legs die Teilstrecken in Fahrtreihenfolge
+ */
+public record RouteConnection(List<Ride> legs) {
+
+    public RouteConnection {
+        legs = List.copyOf(legs);
+    }
+
+    public Ride firstLeg() {
+        return legs.get(0);
+    }
+
+    public Ride lastLeg() {
+        return legs.get(legs.size() - 1);
+    }
+
+    /**
+     * Anzahl der Umstiege (0 = Direktverbindung).
+     */
+    public int transfers() {
+        return legs.size() - 1;
+    }
+
+    public LocalDateTime departure() {
+        return RideService.departureOf(firstLeg());
+    }
+
+    /**
+     * Geschätzte Ankunft am Ziel (siehe {@link RideService#estimateArrival(Ride)}).
+     */
+    public LocalDateTime arrival() {
+        return RideService.estimateArrival(lastLeg());
+    }
+
+    /**
+     * Hilfsmethode für Anzeige der Route, z.B. "Augsburg - Ulm - Köln".
+     */
+    public String getRouteDisplay() {
+        StringBuilder route = new StringBuilder(firstLeg().getOrigin());
+        for (Ride leg : legs) {
+            route.append(" - ").append(leg.getDestination());
+        }
+        return route.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+import de.hnu.util.HashedTimerWheel;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Zeitlich begrenzte Reservierung von Plätzen auf einer Fahrt.
+ *
+ * Wird beim Öffnen der Ride Details (Page 123) angelegt, damit der Platz beim
+ * Klick auf "Book this ride" noch frei ist. Die Plätze sind ab dem Anlegen vom
+ * Sitzzähler der Fahrt abgezogen, werden aber nicht gespeichert (siehe
+ * {@link Ride#availableSeatsWithoutHolds()}). Eine Reservierung wird genau einmal
+ * bestätigt, freigegeben oder läuft ab; die Übergänge sind atomar.
+ */
+public class SeatHold {
+
+    public enum State {
+        HELD,
+        CONFIRMED,
+        RELEASED,
+        EXPIRED
+    }
+
+    private final long userId;
+    private final Ride ride;
+    private final int seats;
+    private final AtomicReference<State> state = new AtomicReference<>(State.HELD);
+    private volatile HashedTimerWheel.Timeout expiry;
+
+    SeatHold(long userId, Ride ride, int seats) {
+        this.userId = userId;
+        this.ride = ride;
+        this.seats = seats;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+
+    public int getSeats() {
+        return seats;
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    public boolean isHeld() {
+        return state.get() == State.HELD;
+    }
+
+    void setExpiry(HashedTimerWheel.Timeout expiry) {
+        this.expiry = expiry;
+    }
+
+    /**
+     * Beendet die Reservierung, falls sie noch besteht.
+     *
+     * @return true wenn dieser Aufruf den Übergang durchgeführt hat
+     */
+    boolean finish(State target) {
+        if (!state.compareAndSet(State.HELD, target)) {
+            return false;
+        }
+        HashedTimerWheel.Timeout timeout = expiry;
+        if (timeout != null && target != State.EXPIRED) {
+            timeout.cancel();
+        }
+        return true;
+    }
+}
@@ -0,0 +1,17 @@
+package de.hnu.service;
+
+/**
+ * Verhalten einer Buchung über mehrere Plätze, wenn nicht genug Plätze frei sind.
+ */
+public enum SeatPolicy {
+
+    /**
+     * Alle gewünschten Plätze oder keinen (z.B. Familie, die zusammen fahren will).
+     */
+    ALL_OR_NOTHING,
+
+    /**
+     * So viele der gewünschten Plätze wie noch frei sind, mindestens einen.
+     */
+    BEST_EFFORT
+}
@@ -0,0 +1,10 @@
+package de.hnu.service;
+
+/**
+ * Eine Position einer Sammelbuchung: Anzahl Plätze auf einer Fahrt.
+ *
+ * @param rideId ID der Fahrt
+ * @param seats Anzahl der Plätze (mindestens 1)
+ */
+public record SeatRequest(long rideId, int seats) {
+}
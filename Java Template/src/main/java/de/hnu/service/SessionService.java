@@ -3,44 +3,223 @@ package de.hnu.service;
 import de.hnu.model.User;
 import de.hnu.repository.UserRepository;
 
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
- * Service für die aktuelle Benutzersitzung.
- * Verwaltet den eingeloggten Benutzer (Samuel Klefe).
+ * Service für Benutzersitzungen.
+ *
+ * Jede Sitzung hat ein zufälliges Token, über das sie in einer nebenläufigen Map
+ * gefunden wird (O(1), keine globale Sperre). Jedes Fenster bzw. jeder Client hält
+ * sein eigenes Token, so können mehrere Benutzer gleichzeitig angemeldet sein.
+ * Sitzungen laufen nach {@link #DEFAULT_IDLE_TIMEOUT} ohne Zugriff ab.
  *
- * In diesem Prototyp ist der Benutzer hardcoded - keine echte Authentifizierung.
+ * In diesem Prototyp gibt es keine echte Authentifizierung: {@link #login(long)}
+ * vertraut der übergebenen Benutzer-ID.
+ *
+ * Die Anzeigedaten des Benutzers (Initialen, Name, Rating) werden pro Sitzung einmal
+ * berechnet und nur neu erzeugt, wenn sich der Benutzer ändert (siehe
+ * {@link User#version()}). Die Navigation zwischen Views baut so keine Strings neu.
  */
 public class SessionService {
 
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    // Letzter Zugriff wird höchstens so oft geschrieben, damit Leser sich nicht gegenseitig ausbremsen
+    private static final long MAX_TOUCH_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final int TOKEN_BYTES = 16;
+
+    // Anzeigedaten mit dem Stand des Benutzers, aus dem sie berechnet wurden
+    private record CachedDisplay(User user, int version, UserDisplay display) {
+    }
+
+    private static final class Session {
+        final long userId;
+        volatile long lastAccess;
+        volatile CachedDisplay display;
+
+        Session(long userId, long now) {
+            this.userId = userId;
+            this.lastAccess = now;
+        }
+    }
+
     private final UserRepository userRepository;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final long idleTimeoutNanos;
+    private final long touchIntervalNanos;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong nextPurge;
 
     public SessionService(UserRepository userRepository) {
+        this(userRepository, DEFAULT_IDLE_TIMEOUT);
+    }
+
+    public SessionService(UserRepository userRepository, Duration idleTimeout) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Timeout muss positiv sein: " + idleTimeout);
+        }
         this.userRepository = userRepository;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.touchIntervalNanos = Math.min(MAX_TOUCH_INTERVAL_NANOS, idleTimeoutNanos / 8);
+        this.nextPurge = new AtomicLong(System.nanoTime() + idleTimeoutNanos);
+    }
+
+    /**
+     * Meldet einen Benutzer an.
+     *
+     * @return Token der neuen Sitzung
+     */
+    public String login(long userId) {
+        if (userRepository.findById(userId).isEmpty()) {
+            throw new IllegalArgumentException("Unbekannter Benutzer: " + userId);
+        }
+        long now = System.nanoTime();
+        purgeExpiredIfDue(now);
+
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(userId, now));
+        return token;
+    }
+
+    /**
+     * Meldet den Standard-Benutzer des Prototyps an (Samuel Klefe).
+     */
+    public String loginDefaultUser() {
+        return login(userRepository.getCurrentUser().getId());
     }
 
     /**
-     * Gibt den aktuell eingeloggten Benutzer zurück.
-     * In diesem Prototyp immer Samuel Klefe.
+     * Beendet eine Sitzung.
      */
-    public User getCurrentUser() {
-        return userRepository.getCurrentUser();
+    public void logout(String token) {
+        sessions.remove(token);
     }
 
     /**
-     * Gibt die Initialen des aktuellen Benutzers zurück.
+     * Prüft ob das Token zu einer gültigen Sitzung gehört (zählt als Zugriff).
+     */
+    public boolean isLoggedIn(String token) {
+        return find(token) != null;
+    }
+
+    /**
+     * Gibt das Token zurück, solange die Sitzung gültig ist (zählt als Zugriff), sonst
+     * das Token einer neuen Sitzung für denselben Benutzer. Für Fenster ohne Login-Screen,
+     * die nach längerer Inaktivität still weiterarbeiten sollen.
+     *
+     * @throws IllegalArgumentException wenn der Benutzer nicht (mehr) existiert
+     */
+    public String renewIfExpired(String token, long userId) {
+        return find(token) != null ? token : login(userId);
+    }
+
+    /**
+     * Gibt die Benutzer-ID der Sitzung zurück.
+     *
+     * @throws IllegalStateException wenn die Sitzung nicht (mehr) existiert
+     */
+    public long getUserId(String token) {
+        Session session = find(token);
+        if (session == null) {
+            throw new IllegalStateException("Keine gültige Sitzung");
+        }
+        return session.userId;
+    }
+
+    /**
+     * Gibt den Benutzer der Sitzung zurück.
+     *
+     * @throws IllegalStateException wenn die Sitzung nicht (mehr) existiert
+     */
+    public User getUser(String token) {
+        long userId = getUserId(token);
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Benutzer " + userId + " existiert nicht mehr"));
+    }
+
+    /**
+     * Gibt die Initialen des Benutzers der Sitzung zurück.
      * Wird im Header angezeigt (z.B. "SK" für Samuel Klefe).
      *
      * Im Mockup wird "AS" angezeigt (Aylin Sisman),
      * aber wir verwenden "SK" für Samuel Klefe.
      */
-    public String getCurrentUserInitials() {
-        return getCurrentUser().getInitials();
+    public String getUserInitials(String token) {
+        return getUserDisplay(token).initials();
+    }
+
+    /**
+     * Gibt die Anzeigedaten des Benutzers der Sitzung zurück (gecacht).
+     *
+     * @throws IllegalStateException wenn die Sitzung nicht (mehr) existiert
+     */
+    public UserDisplay getUserDisplay(String token) {
+        Session session = find(token);
+        if (session == null) {
+            throw new IllegalStateException("Keine gültige Sitzung");
+        }
+        User user = userRepository.findById(session.userId).orElse(null);
+        if (user == null) {
+            throw new IllegalStateException("Benutzer " + session.userId + " existiert nicht mehr");
+        }
+
+        // Version vor dem Berechnen lesen: eine gleichzeitige Änderung macht den Eintrag nur ungültig
+        int version = user.version();
+        CachedDisplay cached = session.display;
+        if (cached != null && cached.user() == user && cached.version() == version) {
+            return cached.display();
+        }
+        UserDisplay display = UserDisplay.of(user);
+        session.display = new CachedDisplay(user, version, display);
+        return display;
+    }
+
+    /**
+     * Anzahl der Sitzungen (inkl. abgelaufener, die noch nicht entfernt wurden).
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Sucht die Sitzung und verlängert sie. Abgelaufene Sitzungen werden entfernt.
+     */
+    private Session find(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        long lastAccess = session.lastAccess;
+        if (now - lastAccess > idleTimeoutNanos) {
+            sessions.remove(token, session);
+            return null;
+        }
+        if (now - lastAccess > touchIntervalNanos) {
+            session.lastAccess = now;
+        }
+        return session;
     }
 
     /**
-     * Prüft ob ein Benutzer eingeloggt ist.
-     * In diesem Prototyp immer true.
+     * Entfernt abgelaufene Sitzungen, höchstens einmal pro Timeout-Dauer.
+     * Nur ein Thread räumt auf; die Map wird dabei nicht gesperrt.
      */
-    public boolean isLoggedIn() {
-        return true;
+    private void purgeExpiredIfDue(long now) {
+        long due = nextPurge.get();
+        if (now - due < 0 || !nextPurge.compareAndSet(due, now + idleTimeoutNanos)) {
+            return;
+        }
+        sessions.entrySet().removeIf(entry -> now - entry.getValue().lastAccess > idleTimeoutNanos);
     }
 }
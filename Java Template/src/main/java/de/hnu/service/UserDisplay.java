@@ -0,0 +1,17 @@
+package de.hnu.service;
+
+import de.hnu.model.User;
+
+/**
+ * Vorberechnete Anzeigedaten eines Benutzers für den Header der Views.
+ *
+ * @param initials Initialen (z.B. "SK")
+ * @param fullName vollständiger Name
+ * @param rating Bewertung (1.0 - 5.0)
+ */
+public record UserDisplay(String initials, String fullName, double rating) {
+
+    static UserDisplay of(User user) {
+        return new UserDisplay(user.getInitials(), user.getFullName(), user.getRating());
+    }
+}
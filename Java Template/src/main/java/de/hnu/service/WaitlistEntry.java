@@ -0,0 +1,78 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Platz eines Benutzers in der Warteliste einer ausgebuchten Fahrt.
+ *
+ * Wird ein Platz frei, bekommt ihn der älteste wartende Eintrag; die Benachrichtigung
+ * erfolgt asynchron über {@link #assignment()}. Zuteilen und Abbrechen sind atomar,
+ * ein Eintrag bekommt also höchstens einen Platz.
+ */
+public class WaitlistEntry {
+
+    private static final int WAITING = 0;
+    private static final int ASSIGNED = 1;
+    private static final int CANCELLED = 2;
+
+    private final long userId;
+    private final Ride ride;
+    private final AtomicInteger state = new AtomicInteger(WAITING);
+    private final CompletableFuture<Ride> assignment = new CompletableFuture<>();
+
+    WaitlistEntry(long userId, Ride ride) {
+        this.userId = userId;
+        this.ride = ride;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public Ride getRide() {
+        return ride;
+    }
+
+    /**
+     * Wird mit der Fahrt abgeschlossen, sobald dem Benutzer ein Platz zugeteilt wurde.
+     */
+    public CompletableFuture<Ride> assignment() {
+        return assignment;
+    }
+
+    public boolean isWaiting() {
+        return state.get() == WAITING;
+    }
+
+    /**
+     * Verlässt die Warteliste.
+     *
+     * @return false wenn bereits ein Platz zugeteilt wurde
+     */
+    public boolean cancel() {
+        if (state.compareAndSet(WAITING, CANCELLED)) {
+            assignment.cancel(false);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Beansprucht den Eintrag für eine Zuteilung.
+     *
+     * @return true wenn der Eintrag noch wartete
+     */
+    boolean claim() {
+        return state.compareAndSet(WAITING, ASSIGNED);
+    }
+
+    /**
+     * Benachrichtigt den Benutzer asynchron, damit der freigebende Thread nicht blockiert.
+     */
+    void notifyAssigned() {
+        assignment.completeAsync(() -> ride);
+    }
+}
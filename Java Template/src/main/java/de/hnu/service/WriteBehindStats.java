@@ -0,0 +1,19 @@
+package de.hnu.service;
+
+/**
+ * Kennzahlen des Buchungs-Write-Behind.
+ *
+ * @param flushedBatches erfolgreich geschriebene Batches
+ * @param flushedRecords erfolgreich geschriebene Vorgänge
+ * @param failedFlushes fehlgeschlagene Schreibversuche (werden wiederholt)
+ * @param backpressureWaits Buchungen, die auf Platz im vollen Puffer warten mussten
+ * @param rejectedSubmits Buchungen, die abgelehnt wurden, weil der Puffer voll blieb
+ * @param queueDepth aktuell noch nicht geschriebene Vorgänge
+ * @param lastFlushMillis Dauer des letzten erfolgreichen Batches
+ * @param avgFlushMillis durchschnittliche Dauer eines erfolgreichen Batches
+ * @param maxFlushMillis längste Dauer eines erfolgreichen Batches
+ */
+public record WriteBehindStats(long flushedBatches, long flushedRecords, long failedFlushes,
+                               long backpressureWaits, long rejectedSubmits, int queueDepth, double lastFlushMillis,
+                               double avgFlushMillis, double maxFlushMillis) {
+}
@@ -114,12 +114,14 @@ public class AvailableRidesView {
         // ScrollPane für die Ride-Liste
         VBox rideList = new VBox(8);
 
-        List<Ride> rides = controller.getAvailableRides();
+        // "Mehr laden" am Listenende, solange weitere Seiten vorhanden sind
+        Button loadMoreButton = new Button("Load more rides");
+        loadMoreButton.setStyle("-fx-background-color: white; -fx-border-color: #ccc; " +
+                               "-fx-font-style: italic; -fx-cursor: hand;");
+        loadMoreButton.setMaxWidth(Double.MAX_VALUE);
+        loadMoreButton.setOnAction(e -> appendRides(rideList, loadMoreButton));
 
-        for (Ride ride : rides) {
-            VBox rideCard = createRideCard(ride);
-            rideList.getChildren().add(rideCard);
-        }
+        appendRides(rideList, loadMoreButton);
 
         ScrollPane scrollPane = new ScrollPane(rideList);
         scrollPane.setFitToWidth(true);
@@ -133,6 +135,24 @@ public class AvailableRidesView {
         return content;
     }
 
+    /**
+     * Hängt die nächste Seite an die Liste an.
+     * ISO 9241-11 Effizienz: Erste Ergebnisse sofort, weitere nur bei Bedarf.
+     */
+    private void appendRides(VBox rideList, Button loadMoreButton) {
+        rideList.getChildren().remove(loadMoreButton);
+
+        List<Ride> rides = controller.loadNextRides();
+        for (Ride ride : rides) {
+            VBox rideCard = createRideCard(ride);
+            rideList.getChildren().add(rideCard);
+        }
+
+        if (controller.hasMoreRides()) {
+            rideList.getChildren().add(loadMoreButton);
+        }
+    }
+
     /**
      * Erstellt eine Ride-Card für die Liste.
      * ISO 9241-11 Zufriedenheit: Konsistentes Design mit Favoriten-View.
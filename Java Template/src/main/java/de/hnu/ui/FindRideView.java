@@ -150,7 +150,8 @@ public class FindRideView {
                                "-fx-padding: 12 40; -fx-background-radius: 8; " +
                                "-fx-font-style: italic;");
         findRideButton.setOnAction(e -> controller.onFindRideClicked(
-                fromField.getText(), toField.getText()));
+                fromField.getText(), toField.getText(),
+                datePicker.getValue(), timeField.getText()));
 
         // Großer Spacer
         Region bigSpacer = new Region();
@@ -6,6 +6,7 @@ import de.hnu.service.*;
 
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import javafx.stage.WindowEvent;
 
 /**
  * Zentrale Navigation zwischen den Views.
@@ -33,9 +34,19 @@ public class NavigationService {
     private final BookingService bookingService;
     private final SessionService sessionService;
 
+    // Sitzung dieses Fensters; jedes Fenster hat seine eigene
+    private String sessionToken;
+    private final long sessionUserId;
+
     // Speichert den letzten ViewType für Back-Navigation
     private ViewType previousView = ViewType.FIND_RIDE;
 
+    // Letzte Suche, damit "zurück" zu den Ergebnissen dieselbe Liste zeigt
+    private RideSearchQuery lastSearchQuery;
+
+    // Aufräumen der aktuellen View (z.B. Reservierung freigeben), null wenn nichts zu tun ist
+    private Runnable leaveAction;
+
     // Breite und Höhe entsprechend Smartphone-Mockup
     private static final double SCENE_WIDTH = 380;
     private static final double SCENE_HEIGHT = 700;
@@ -45,11 +56,30 @@ public class NavigationService {
                             FavoriteService favoriteService,
                             BookingService bookingService,
                             SessionService sessionService) {
+        this(primaryStage, rideService, favoriteService, bookingService, sessionService,
+                sessionService.loginDefaultUser());
+    }
+
+    /**
+     * Erstellt die Navigation für ein Fenster mit einer bestehenden Sitzung.
+     *
+     * @param sessionToken Token aus {@link SessionService#login(long)}
+     */
+    public NavigationService(Stage primaryStage,
+                            RideService rideService,
+                            FavoriteService favoriteService,
+                            BookingService bookingService,
+                            SessionService sessionService,
+                            String sessionToken) {
         this.primaryStage = primaryStage;
         this.rideService = rideService;
         this.favoriteService = favoriteService;
         this.bookingService = bookingService;
         this.sessionService = sessionService;
+        this.sessionToken = sessionToken;
+        this.sessionUserId = sessionService.getUserId(sessionToken);
+        // Auch beim Schließen des Fensters wird die aktuelle View verlassen
+        primaryStage.addEventHandler(WindowEvent.WINDOW_HIDDEN, event -> leaveCurrentView());
     }
 
     /**
@@ -66,6 +96,8 @@ public class NavigationService {
      * @param data Optionale Daten (z.B. Ride für Details)
      */
     public void navigateTo(ViewType viewType, Object data) {
+        renewSessionIfExpired();
+        leaveCurrentView();
         Scene scene = createScene(viewType, data);
         primaryStage.setScene(scene);
 
@@ -80,6 +112,22 @@ public class NavigationService {
         navigateTo(previousView);
     }
 
+    /**
+     * Setzt eine Aktion, die ausgeführt wird, sobald die aktuelle View verlassen wird
+     * (beliebige Navigation oder Schließen des Fensters). Gilt nur für diese View.
+     */
+    public void setOnLeave(Runnable action) {
+        this.leaveAction = action;
+    }
+
+    private void leaveCurrentView() {
+        Runnable action = leaveAction;
+        leaveAction = null;
+        if (action != null) {
+            action.run();
+        }
+    }
+
     /**
      * Setzt die vorherige View für Back-Navigation.
      */
@@ -108,8 +156,11 @@ public class NavigationService {
 
             case AVAILABLE_RIDES:
                 previousView = ViewType.FIND_RIDE;
+                if (data instanceof RideSearchQuery query) {
+                    lastSearchQuery = query;
+                }
                 AvailableRidesController availController = new AvailableRidesController(
-                        rideService, this, sessionService);
+                        rideService, this, sessionService, lastSearchQuery);
                 AvailableRidesView availView = new AvailableRidesView(availController);
                 return new Scene(availView.getRoot(), SCENE_WIDTH, SCENE_HEIGHT);
 
@@ -147,6 +198,34 @@ public class NavigationService {
         }
     }
 
+    /**
+     * Gibt das Sitzungs-Token dieses Fensters zurück.
+     * Eine abgelaufene Sitzung wird vorher erneuert, das Token ist also immer gültig.
+     */
+    public String getSessionToken() {
+        renewSessionIfExpired();
+        return sessionToken;
+    }
+
+    /**
+     * Gibt die Benutzer-ID der Sitzung dieses Fensters zurück.
+     *
+     * Controller verwenden diese Methode statt {@link SessionService#getUserId(String)}:
+     * Nach längerer Inaktivität (z.B. Details offen gelassen) ist die Sitzung abgelaufen,
+     * und ein Klick würde sonst mit einer Exception im JavaFX-Thread enden.
+     */
+    public long getSessionUserId() {
+        renewSessionIfExpired();
+        return sessionUserId;
+    }
+
+    /**
+     * Ohne Login-Screen im Prototyp: abgelaufene Sitzung still für denselben Benutzer erneuern.
+     */
+    private void renewSessionIfExpired() {
+        sessionToken = sessionService.renewIfExpired(sessionToken, sessionUserId);
+    }
+
     /**
      * Gibt die Session-Service zurück (für User-Initialen im Header).
      */
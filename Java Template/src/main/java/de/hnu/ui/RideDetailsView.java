@@ -1,8 +1,10 @@
 package de.hnu.ui;
 
+import de.hnu.controller.BookingResult;
 import de.hnu.controller.RideDetailsController;
 import de.hnu.model.Ride;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -131,8 +133,30 @@ public class RideDetailsView {
         }
         addDetailRow(detailsGrid, 5, "Time:", timeStr);
 
-        // Available seats
-        addDetailRow(detailsGrid, 6, "Available seats:", String.valueOf(ride.getAvailableSeats()));
+        // Available seats (inkl. des für diesen Benutzer reservierten Platzes)
+        int bookableSeats = controller.getBookableSeats();
+        addDetailRow(detailsGrid, 6, "Available seats:", String.valueOf(bookableSeats));
+
+        // Hinweis auf reservierten Platz
+        // ISO 9241-11 Zufriedenheit: Benutzer kann ohne Zeitdruck entscheiden
+        Label holdLabel = new Label(controller.isSeatHeld()
+                ? "A seat is held for you for " + controller.getHoldMinutes() + " minutes."
+                : "");
+        holdLabel.setStyle("-fx-text-fill: #666; -fx-font-style: italic;");
+
+        // Anzahl Plätze (z.B. für Familien oder Gruppen)
+        HBox seatsBox = new HBox(10);
+        seatsBox.setAlignment(Pos.CENTER);
+
+        Label seatsLabel = new Label("Seats:");
+        seatsLabel.setFont(Font.font("System", FontWeight.BOLD, 14));
+
+        Spinner<Integer> seatsSpinner = new Spinner<>(1, Math.max(bookableSeats, 1), 1);
+        seatsSpinner.setPrefWidth(70);
+
+        CheckBox acceptFewerBox = new CheckBox("Accept fewer seats");
+
+        seatsBox.getChildren().addAll(seatsLabel, seatsSpinner, acceptFewerBox);
 
         // Spacer
         Region spacer2 = new Region();
@@ -146,9 +170,24 @@ public class RideDetailsView {
                            "-fx-padding: 12 50; -fx-background-radius: 8; " +
                            "-fx-font-style: italic;");
         bookButton.setOnAction(e -> {
-            boolean success = controller.onBookRideClicked();
-            if (!success) {
-                showAlert("Buchung fehlgeschlagen", "Keine Plätze mehr verfügbar.");
+            int requested = seatsSpinner.getValue();
+            try {
+                BookingResult result = controller.onBookRideClicked(requested, acceptFewerBox.isSelected());
+                if (result.isBooked() && result.bookedSeats() < requested) {
+                    showInfo("Teilweise gebucht", result.bookedSeats() + " von " + requested + " Plätzen gebucht.");
+                } else if (result.isTooFewSeats()) {
+                    // Warteliste hilft hier nicht: Sie vergibt nur einzelne Plätze einer vollen Fahrt
+                    showInfo("Nicht genug Plätze", "Nur noch " + result.bookableSeats()
+                            + " Plätze frei. Weniger Plätze wählen oder \"Accept fewer seats\" aktivieren.");
+                } else if (result.isRideFull() && confirmWaitlist()) {
+                    // Benachrichtigung kommt asynchron, Anzeige im JavaFX-Thread
+                    controller.onJoinWaitlistClicked().thenAccept(bookedRide -> Platform.runLater(() ->
+                            showInfo("Platz gebucht", "Von der Warteliste gebucht: "
+                                    + bookedRide.getRouteDisplay())));
+                }
+            } catch (IllegalStateException ex) {
+                // Datenbank kommt nicht hinterher: nichts gebucht, später erneut versuchen
+                showInfo("Buchung nicht möglich", ex.getMessage());
             }
         });
 
@@ -198,6 +237,8 @@ public class RideDetailsView {
                 ratingBox,
                 spacer1,
                 detailsGrid,
+                holdLabel,
+                seatsBox,
                 spacer2,
                 bookButton,
                 spacer3,
@@ -241,14 +282,22 @@ public class RideDetailsView {
     }
 
     /**
-     * Zeigt einen Alert-Dialog an.
+     * Fragt bei ausgebuchter Fahrt, ob der Benutzer auf die Warteliste möchte.
      */
-    private void showAlert(String title, String message) {
-        Alert alert = new Alert(Alert.AlertType.WARNING);
+    private boolean confirmWaitlist() {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Buchung fehlgeschlagen");
+        alert.setHeaderText(null);
+        alert.setContentText("Keine Plätze mehr verfügbar. Auf die Warteliste setzen?");
+        return alert.showAndWait().filter(button -> button == ButtonType.OK).isPresent();
+    }
+
+    private void showInfo(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
         alert.setHeaderText(null);
         alert.setContentText(message);
-        alert.showAndWait();
+        alert.show();
     }
 
     private HBox createBottomNavigation() {
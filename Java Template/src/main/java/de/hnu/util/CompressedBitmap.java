@@ -0,0 +1,496 @@
+package de.hnu.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Komprimierte Bitmenge nicht-negativer int-Werte (nach dem Roaring-Prinzip).
+ *
+ * Der Wertebereich wird in Blöcke zu 65536 Werten geteilt (obere 16 Bit). Pro Block
+ * gibt es nur einen Container, wenn er Werte enthält: bis {@value #ARRAY_LIMIT} Werte
+ * als sortiertes char-Array (2 Byte pro Wert), darüber als feste Bitmap (8 KB).
+ * Dünn besetzte Mengen kosten so wenige Bytes pro Wert, dichte höchstens ein Bit.
+ *
+ * Prüfen kostet eine Binärsuche über die Blöcke plus eine im Container; Vereinigung
+ * und Schnitt laufen blockweise (Bitmaps wortweise mit 64 Bit).
+ *
+ * Nicht thread-sicher: Aufrufer müssen Zugriffe selbst synchronisieren.
+ */
+public class CompressedBitmap {
+
+    // Ab hier ist die Bitmap (8 KB) kleiner als das Array
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys;
+    private Container[] containers;
+    private int blocks;
+
+    public CompressedBitmap() {
+        this.keys = new char[4];
+        this.containers = new Container[4];
+    }
+
+    private CompressedBitmap(char[] keys, Container[] containers, int blocks) {
+        this.keys = keys;
+        this.containers = containers;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Fügt einen Wert hinzu.
+     *
+     * @return true wenn der Wert neu ist
+     */
+    public boolean add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int index = indexOf(high);
+        if (index < 0) {
+            index = -index - 1;
+            insertBlock(index, high, new ArrayContainer());
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add((char) value);
+        return containers[index].cardinality() > before;
+    }
+
+    /**
+     * Entfernt einen Wert.
+     *
+     * @return true wenn der Wert enthalten war
+     */
+    public boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container changed = container.remove((char) value);
+        if (changed.cardinality() == before) {
+            return false;
+        }
+        if (changed.cardinality() == 0) {
+            removeBlock(index);
+        } else {
+            containers[index] = changed;
+        }
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = indexOf((char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * Anzahl der enthaltenen Werte.
+     */
+    public int cardinality() {
+        int sum = 0;
+        for (int i = 0; i < blocks; i++) {
+            sum += containers[i].cardinality();
+        }
+        return sum;
+    }
+
+    public boolean isEmpty() {
+        return blocks == 0;
+    }
+
+    /**
+     * Übergibt alle Werte in aufsteigender Reihenfolge.
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < blocks; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    /**
+     * Gibt alle Werte aufsteigend sortiert zurück.
+     */
+    public int[] toArray() {
+        int[] result = new int[cardinality()];
+        int[] position = {0};
+        forEach(value -> result[position[0]++] = value);
+        return result;
+    }
+
+    public CompressedBitmap copy() {
+        Container[] copied = new Container[Math.max(blocks, 1)];
+        for (int i = 0; i < blocks; i++) {
+            copied[i] = containers[i].copy();
+        }
+        return new CompressedBitmap(Arrays.copyOf(keys, copied.length), copied, blocks);
+    }
+
+    /**
+     * Vereinigt {@code other} in diese Menge.
+     */
+    public void or(CompressedBitmap other) {
+        for (int j = 0; j < other.blocks; j++) {
+            char high = other.keys[j];
+            int index = indexOf(high);
+            if (index < 0) {
+                insertBlock(-index - 1, high, other.containers[j].copy());
+            } else {
+                containers[index] = containers[index].or(other.containers[j]);
+            }
+        }
+    }
+
+    /**
+     * Gibt die Schnittmenge zweier Mengen als neue Menge zurück.
+     */
+    public static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.blocks && j < b.blocks) {
+            if (a.keys[i] < b.keys[j]) {
+                i++;
+            } else if (a.keys[i] > b.keys[j]) {
+                j++;
+            } else {
+                Container common = a.containers[i].and(b.containers[j]);
+                if (common.cardinality() > 0) {
+                    result.insertBlock(result.blocks, a.keys[i], common);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gibt die Vereinigung zweier Mengen als neue Menge zurück.
+     */
+    public static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = a.copy();
+        result.or(b);
+        return result;
+    }
+
+    /**
+     * Geschätzter Speicherbedarf in Bytes (Arrays und Container, ohne JVM-Header).
+     */
+    public long sizeInBytes() {
+        long bytes = keys.length * 2L + containers.length * 4L;
+        for (int i = 0; i < blocks; i++) {
+            bytes += containers[i].sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private int indexOf(char high) {
+        return Arrays.binarySearch(keys, 0, blocks, high);
+    }
+
+    private void insertBlock(int index, char high, Container container) {
+        if (blocks == keys.length) {
+            int capacity = Math.max(blocks * 2, 4);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, blocks - index);
+        System.arraycopy(containers, index, containers, index + 1, blocks - index);
+        keys[index] = high;
+        containers[index] = container;
+        blocks++;
+    }
+
+    private void removeBlock(int index) {
+        System.arraycopy(keys, index + 1, keys, index, blocks - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, blocks - index - 1);
+        blocks--;
+        containers[blocks] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Nur nicht-negative Werte: " + value);
+        }
+    }
+
+    /**
+     * Werte eines Blocks (untere 16 Bit). Ändernde Methoden geben den Container
+     * zurück, der danach gilt (Umwandlung Array ↔ Bitmap).
+     */
+    private abstract static class Container {
+
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract Container or(Container other);
+
+        abstract Container and(Container other);
+
+        abstract void forEach(int base, IntConsumer action);
+
+        abstract Container copy();
+
+        abstract long sizeInBytes();
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(cardinality * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer that = (ArrayContainer) other;
+            char[] merged = new char[cardinality + that.cardinality];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality && j < that.cardinality) {
+                char a = values[i];
+                char b = that.values[j];
+                if (a < b) {
+                    merged[n++] = a;
+                    i++;
+                } else if (a > b) {
+                    merged[n++] = b;
+                    j++;
+                } else {
+                    merged[n++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                merged[n++] = values[i++];
+            }
+            while (j < that.cardinality) {
+                merged[n++] = that.values[j++];
+            }
+            ArrayContainer result = new ArrayContainer(merged, n);
+            return n > ARRAY_LIMIT ? result.toBitmap() : result;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] common = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (other.contains(values[i])) {
+                    common[n++] = values[i];
+                }
+            }
+            return new ArrayContainer(common, n);
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return values.length * 2L + 4;
+        }
+
+        BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.set(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer() {
+            this(new long[BITMAP_WORDS], 0);
+        }
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        void set(char low) {
+            long before = words[low >>> 6];
+            long after = before | (1L << low);
+            if (before != after) {
+                words[low >>> 6] = after;
+                cardinality++;
+            }
+        }
+
+        @Override
+        Container add(char low) {
+            set(low);
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            long before = words[low >>> 6];
+            long after = before & ~(1L << low);
+            if (before != after) {
+                words[low >>> 6] = after;
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT) {
+                    return toArrayContainer();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof BitmapContainer that) {
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    result[i] |= that.words[i];
+                }
+            } else {
+                ArrayContainer that = (ArrayContainer) other;
+                for (int i = 0; i < that.cardinality; i++) {
+                    char low = that.values[i];
+                    result[low >>> 6] |= 1L << low;
+                }
+            }
+            return new BitmapContainer(result, bitCount(result));
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer that = (BitmapContainer) other;
+            long[] result = new long[BITMAP_WORDS];
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & that.words[i];
+            }
+            BitmapContainer common = new BitmapContainer(result, bitCount(result));
+            return common.cardinality <= ARRAY_LIMIT ? common.toArrayContainer() : common;
+        }
+
+        @Override
+        void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | (i << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        long sizeInBytes() {
+            return BITMAP_WORDS * 8L + 4;
+        }
+
+        ArrayContainer toArrayContainer() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int[] n = {0};
+            forEach(0, value -> values[n[0]++] = (char) value);
+            return new ArrayContainer(values, cardinality);
+        }
+
+        private static int bitCount(long[] words) {
+            int sum = 0;
+            for (long word : words) {
+                sum += Long.bitCount(word);
+            }
+            return sum;
+        }
+    }
+}
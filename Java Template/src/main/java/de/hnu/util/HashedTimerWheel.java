@@ -0,0 +1,226 @@
+package de.hnu.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed Timer Wheel für sehr viele kurzlebige Timeouts (z.B. Platz-Reservierungen).
+ *
+ * Statt einer geplanten Aufgabe pro Timeout (Heap mit O(log n) pro Einfügen) gibt es
+ * ein Rad aus {@code wheelSize} Fächern. Ein Timeout landet im Fach seines Ablauf-Ticks
+ * und merkt sich, wie viele volle Umdrehungen er noch warten muss. Ein einzelner
+ * Hintergrund-Thread bearbeitet pro Tick nur ein Fach. Einfügen und Abbrechen kosten
+ * O(1), die Genauigkeit ist auf eine Tick-Dauer begrenzt.
+ *
+ * Thread-Sicherheit: {@link #schedule} und {@link Timeout#cancel()} dürfen von beliebigen
+ * Threads aufgerufen werden. Neue Timeouts werden über eine Queue an den Rad-Thread
+ * übergeben, nur dieser verändert die Fächer. Die Aufgaben laufen im Rad-Thread und
+ * sollten daher kurz sein.
+ */
+public class HashedTimerWheel {
+
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    /**
+     * Handle eines geplanten Timeouts.
+     */
+    public static final class Timeout {
+
+        private final Runnable task;
+        private final long deadlineTick;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        // Doppelt verkettete Liste im Fach, nur vom Rad-Thread verändert
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Bricht den Timeout ab.
+         *
+         * @return true wenn abgebrochen, false wenn er bereits abgelaufen oder abgebrochen war
+         */
+        public boolean cancel() {
+            // Entfernt wird der Eintrag beim nächsten Besuch seines Fachs
+            return state.compareAndSet(PENDING, CANCELLED);
+        }
+
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+    }
+
+    private static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout following = timeout.next;
+            if (timeout.previous != null) {
+                timeout.previous.next = following;
+            } else {
+                head = following;
+            }
+            if (following != null) {
+                following.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            return following;
+        }
+    }
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+
+    /**
+     * @param tickDuration Dauer eines Ticks (Genauigkeit der Timeouts)
+     * @param unit Einheit der Tick-Dauer
+     * @param wheelSize Anzahl der Fächer, wird auf eine Zweierpotenz aufgerundet
+     * @param threadName Name des Hintergrund-Threads
+     */
+    public HashedTimerWheel(long tickDuration, TimeUnit unit, int wheelSize, String threadName) {
+        if (tickDuration <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick-Dauer und Radgröße müssen positiv sein");
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Plant eine Aufgabe, die nach der Verzögerung im Rad-Thread ausgeführt wird.
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running) {
+            throw new IllegalStateException("Timer Wheel wurde gestoppt");
+        }
+        // Aufrunden, damit ein Timeout nie zu früh abläuft
+        long elapsed = System.nanoTime() - startTime + unit.toNanos(Math.max(delay, 0));
+        long deadlineTick = (elapsed + tickNanos - 1) / tickNanos;
+        Timeout timeout = new Timeout(task, deadlineTick);
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stoppt den Rad-Thread. Noch ausstehende Timeouts laufen nicht mehr ab.
+     */
+    public void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    private void run() {
+        long tick = 0;
+        while (running) {
+            if (!sleepUntil(tick)) {
+                return;
+            }
+            transferNewTimeouts(tick);
+            expire(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    /**
+     * Verteilt neu geplante Timeouts auf ihre Fächer.
+     */
+    private void transferNewTimeouts(long tick) {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            // Bereits fällige Timeouts im aktuellen Fach ablaufen lassen
+            long target = Math.max(timeout.deadlineTick, tick);
+            timeout.remainingRounds = (target - tick) / wheel.length;
+            wheel[(int) (target & mask)].add(timeout);
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.head;
+        while (timeout != null) {
+            if (timeout.isCancelled()) {
+                timeout = bucket.remove(timeout);
+            } else if (timeout.remainingRounds <= 0) {
+                Timeout following = bucket.remove(timeout);
+                if (timeout.state.compareAndSet(PENDING, EXPIRED)) {
+                    runTask(timeout);
+                }
+                timeout = following;
+            } else {
+                timeout.remainingRounds--;
+                timeout = timeout.next;
+            }
+        }
+    }
+
+    private static void runTask(Timeout timeout) {
+        try {
+            timeout.task.run();
+        } catch (RuntimeException e) {
+            // Eine fehlerhafte Aufgabe darf das Rad nicht anhalten
+            Thread current = Thread.currentThread();
+            current.getUncaughtExceptionHandler().uncaughtException(current, e);
+        }
+    }
+
+    private boolean sleepUntil(long tick) {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        while (true) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return true;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                if (!running) {
+                    return false;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package de.hnu.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Begrenzter, zeitlich ablaufender Cache für Antworten auf Requests mit Idempotency-Key.
+ *
+ * Der erste Request mit einem Schlüssel wird ausgeführt ("Besitzer"), spätere
+ * Wiederholungen bekommen seine Antwort direkt aus dem Cache. Gewartet wird hier nie:
+ * Ob eine Wiederholung auf einen noch laufenden Request warten darf, entscheidet der
+ * Aufrufer anhand von {@link CompletableFuture#isDone()}. Schlägt der erste Request
+ * fehl, wird der Schlüssel verworfen und eine Wiederholung erneut ausgeführt.
+ *
+ * Zu jedem Schlüssel wird ein SHA-256-Hash des Requests gespeichert. Kommt derselbe
+ * Schlüssel mit einem anderen Request, meldet {@link Claim#sameRequest()} false.
+ *
+ * Die Einträge liegen in Einfüge-Reihenfolge; bei Überschreiten der Größe fliegt der
+ * älteste Eintrag raus, abgelaufene Einträge werden beim Zugriff vom Anfang entfernt.
+ * Alle Zugriffe sind synchronisiert und kosten amortisiert O(1).
+ */
+public class IdempotencyCache {
+
+    /**
+     * Ergebnis von {@link #claim(String, String)}.
+     *
+     * @param owner true wenn der Aufrufer den Request ausführen muss
+     * @param sameRequest false wenn der Schlüssel schon für einen anderen Request benutzt wurde
+     * @param response Antwort des ersten Requests (für Wiederholungen)
+     */
+    public record Claim(boolean owner, boolean sameRequest, CompletableFuture<Object> response) {
+    }
+
+    private static final class Entry {
+        final CompletableFuture<Object> response = new CompletableFuture<>();
+        final byte[] requestHash;
+        // Erst gesetzt, wenn der erste Request abgeschlossen ist
+        boolean completed;
+        long expiresAt;
+
+        Entry(byte[] requestHash) {
+            this.requestHash = requestHash;
+        }
+
+        boolean isExpired(long now) {
+            return completed && expiresAt - now <= 0;
+        }
+    }
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    /**
+     * @param maxEntries maximale Anzahl gespeicherter Schlüssel
+     * @param ttlMillis Lebensdauer einer Antwort nach Abschluss des Requests
+     */
+    public IdempotencyCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlMillis * 1_000_000;
+    }
+
+    /**
+     * Beansprucht einen Schlüssel oder gibt die (ggf. noch ausstehende) Antwort zurück.
+     *
+     * @param request kanonische Darstellung des Requests (Endpoint-Parameter und Body)
+     */
+    public synchronized Claim claim(String key, String request) {
+        byte[] requestHash = sha256(request);
+        long now = System.nanoTime();
+        purgeExpired(now);
+
+        Entry existing = entries.get(key);
+        if (existing != null && !existing.isExpired(now)) {
+            boolean sameRequest = MessageDigest.isEqual(existing.requestHash, requestHash);
+            return new Claim(false, sameRequest, existing.response);
+        }
+        if (existing != null) {
+            entries.remove(key);
+        }
+
+        Entry entry = new Entry(requestHash);
+        entries.put(key, entry);
+        if (entries.size() > maxEntries) {
+            Iterator<Entry> eldest = entries.values().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return new Claim(true, true, entry.response);
+    }
+
+    /**
+     * Speichert die Antwort des Besitzers; ab jetzt läuft die Lebensdauer.
+     */
+    public synchronized void complete(String key, Object response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.completed = true;
+            entry.expiresAt = System.nanoTime() + ttlNanos;
+            entry.response.complete(response);
+        }
+    }
+
+    /**
+     * Verwirft den Schlüssel nach einem Fehler; Wiederholungen mit der Antwort sehen den Fehler.
+     */
+    public synchronized void abandon(String key, Throwable cause) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.response.completeExceptionally(cause);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static byte[] sha256(String request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 muss jede Java-Plattform anbieten
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Entfernt abgelaufene Einträge vom Anfang. Da die Lebensdauer für alle gleich ist,
+     * liegen die ältesten Einträge vorne; ein noch laufender Request stoppt die Suche.
+     */
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.isExpired(now)) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+}
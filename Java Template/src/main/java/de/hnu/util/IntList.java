@@ -0,0 +1,79 @@
+package de.hnu.util;
+
+import java.util.Arrays;
+
+/**
+ * Wachsende Liste primitiver int-Werte.
+ *
+ * Wird für Posting-Listen der Such-Indizes verwendet, damit Zeilennummern
+ * nicht als {@code Integer} geboxt werden müssen.
+ *
+ * Thread-Sicherheit: ein Schreiber, beliebig viele Leser. Ein Wert wird vor der
+ * neuen Größe veröffentlicht, und vorhandene Werte werden nie überschrieben.
+ * Wer zuerst {@link #size()} und danach {@link #elements()} liest, sieht daher
+ * mindestens {@code size} gültige Werte.
+ */
+public class IntList {
+
+    private volatile int[] values;
+    private volatile int size;
+
+    public IntList() {
+        this(4);
+    }
+
+    public IntList(int initialCapacity) {
+        this.values = new int[Math.max(initialCapacity, 1)];
+    }
+
+    public void add(int value) {
+        int[] v = values;
+        int n = size;
+        if (n == v.length) {
+            v = Arrays.copyOf(v, n * 2);
+            values = v;
+        }
+        v[n] = value;
+        size = n + 1;
+    }
+
+    public int get(int index) {
+        int n = size;
+        if (index >= n) {
+            throw new IndexOutOfBoundsException("Index " + index + ", Größe " + n);
+        }
+        return values[index];
+    }
+
+    /**
+     * Gibt den letzten Wert zurück oder -1, wenn die Liste leer ist.
+     */
+    public int last() {
+        int n = size;
+        return n == 0 ? -1 : values[n - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gibt das interne Array ohne Kopie zurück (nur lesen!).
+     * Gültig sind die ersten {@link #size()} Werte, wenn die Größe vorher gelesen wurde.
+     */
+    public int[] elements() {
+        return values;
+    }
+
+    /**
+     * Kopiert die Werte in ein Array passender Länge.
+     */
+    public int[] toArray() {
+        int n = size;
+        return Arrays.copyOf(values, n);
+    }
+}
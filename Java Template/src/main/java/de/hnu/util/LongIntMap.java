@@ -0,0 +1,226 @@
+package de.hnu.util;
+
+/**
+ * Hash-Map von primitiven long-Schlüsseln auf primitive int-Werte
+ * (Open Addressing, Linear Probing), z.B. ID → Zeilennummer.
+ *
+ * Thread-Sicherheit: ein Schreiber, beliebig viele Leser, wie bei
+ * {@link LongObjectMap}. Da ein int keinen "leeren" Wert kennt, kann ein Leser
+ * für einen gerade eingefügten Schlüssel kurzzeitig den Wert 0 sehen; Aufrufer
+ * mit gleichzeitigen Lesern müssen das Ergebnis daher gegen ihre Daten prüfen.
+ * {@link #remove(long)} verschiebt Einträge und ist nur ohne gleichzeitige Leser
+ * sicher (z.B. unter derselben Sperre wie die Lesezugriffe).
+ */
+public class LongIntMap {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final class Table {
+        // Schlüssel 0 markiert einen leeren Slot und wird separat gespeichert
+        final long[] keys;
+        final int[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new int[capacity];
+        }
+    }
+
+    private volatile Table table;
+    private volatile boolean hasZeroKey;
+    private volatile int zeroValue;
+    private volatile int size;
+    private int resizeThreshold;
+
+    public LongIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        this.table = new Table(capacity);
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Gibt den Wert zum Schlüssel zurück oder {@code missing}, falls nicht vorhanden.
+     */
+    public int get(long key, int missing) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missing;
+        }
+        Table t = table;
+        long[] k = t.keys;
+        int mask = k.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) {
+                return t.values[i];
+            }
+            if (current == 0) {
+                return missing;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        Table t = table;
+        long[] k = t.keys;
+        int mask = k.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Speichert einen Wert zum Schlüssel (überschreibt einen vorhandenen Wert).
+     */
+    public void put(long key, int value) {
+        if (key == 0) {
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return;
+        }
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = t.keys[i];
+            if (current == key) {
+                t.values[i] = value;
+                return;
+            }
+            if (current == 0) {
+                // Erst den Wert, dann den Schlüssel schreiben
+                t.values[i] = value;
+                t.keys[i] = key;
+                if (size + 1 > resizeThreshold) {
+                    resize(t.keys.length * 2);
+                }
+                size++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Speichert den Wert nur, wenn der Schlüssel noch nicht vorhanden ist.
+     *
+     * @return true wenn eingefügt wurde
+     */
+    public boolean putIfAbsent(long key, int value) {
+        if (containsKey(key)) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Entfernt den Schlüssel.
+     *
+     * @return der entfernte Wert oder {@code missing}, falls nicht vorhanden
+     */
+    public int remove(long key, int missing) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return missing;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        Table t = table;
+        long[] k = t.keys;
+        int mask = k.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == 0) {
+                return missing;
+            }
+            if (current == key) {
+                int value = t.values[i];
+                shiftBack(t, i);
+                size--;
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Schließt die Lücke an {@code gap}, indem nachfolgende Einträge derselben
+     * Probing-Kette nach vorne rücken (kein Grabstein nötig).
+     */
+    private static void shiftBack(Table t, int gap) {
+        long[] k = t.keys;
+        int mask = k.length - 1;
+        int i = gap;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = k[i];
+            if (key == 0) {
+                k[gap] = 0;
+                return;
+            }
+            int home = slot(key, mask);
+            // Eintrag darf nur verschoben werden, wenn die Lücke zwischen Heimat-Slot und i liegt
+            boolean movable = gap <= i ? (home <= gap || home > i) : (home <= gap && home > i);
+            if (movable) {
+                k[gap] = key;
+                t.values[gap] = t.values[i];
+                gap = i;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void resize(int newCapacity) {
+        Table old = table;
+        Table resized = new Table(newCapacity);
+        int mask = newCapacity - 1;
+
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0) {
+                int j = slot(key, mask);
+                while (resized.keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                resized.keys[j] = key;
+                resized.values[j] = old.values[i];
+            }
+        }
+
+        this.table = resized;
+        this.resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, DEFAULT_CAPACITY);
+    }
+}
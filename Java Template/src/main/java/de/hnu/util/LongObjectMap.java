@@ -0,0 +1,178 @@
+package de.hnu.util;
+
+/**
+ * Hash-Map mit primitiven long-Schlüsseln (Open Addressing, Linear Probing).
+ *
+ * Im Gegensatz zu {@code HashMap<Long, V>} werden die Schlüssel nicht geboxt:
+ * Lookups sind O(1) und erzeugen keine Objekte. Wird als Primärschlüssel-Index
+ * der In-Memory-Repositories verwendet. Einträge werden nie entfernt, da die
+ * Repositories nur einfügen. null-Werte werden nicht unterstützt.
+ *
+ * Thread-Sicherheit: ein Schreiber, beliebig viele Leser. Schreibende Zugriffe
+ * müssen extern synchronisiert werden; Lesen ist ohne Sperre möglich. Ein Slot
+ * bekommt erst seinen Wert und dann seinen Schlüssel, ein Leser sieht also
+ * höchstens einen noch unfertigen Eintrag als "nicht vorhanden". Beim Vergrößern
+ * wird eine vollständig gefüllte neue Tabelle veröffentlicht.
+ *
+ * @param <V> Typ der gespeicherten Werte
+ */
+public class LongObjectMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * Schlüssel- und Werte-Array werden gemeinsam veröffentlicht,
+     * damit ein Leser nie Arrays unterschiedlicher Größe kombiniert.
+     */
+    private static final class Table {
+        // Schlüssel 0 markiert einen leeren Slot und wird separat gespeichert
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+
+    private volatile Table table;
+    private volatile Object zeroValue;
+    private volatile int size;
+    private int resizeThreshold;
+
+    public LongObjectMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        int capacity = tableSizeFor((int) Math.ceil(Math.max(expectedSize, 1) / LOAD_FACTOR));
+        this.table = new Table(capacity);
+        this.resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Gibt den Wert zum Schlüssel zurück oder null, falls nicht vorhanden.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == 0) {
+            return (V) zeroValue;
+        }
+        Table t = table;
+        long[] k = t.keys;
+        int mask = k.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = k[i];
+            if (current == key) {
+                return (V) t.values[i];
+            }
+            if (current == 0) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Prüft ob ein Schlüssel vorhanden ist.
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Speichert einen Wert zum Schlüssel.
+     *
+     * @return der vorherige Wert oder null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null-Werte werden nicht unterstützt");
+        }
+        if (key == 0) {
+            V previous = (V) zeroValue;
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        Table t = table;
+        int mask = t.keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            long current = t.keys[i];
+            if (current == key) {
+                V previous = (V) t.values[i];
+                t.values[i] = value;
+                return previous;
+            }
+            if (current == 0) {
+                // Erst den Wert, dann den Schlüssel schreiben (siehe Klassenkommentar)
+                t.values[i] = value;
+                t.keys[i] = key;
+                if (size + 1 > resizeThreshold) {
+                    resize(t.keys.length * 2);
+                }
+                size++;
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Speichert den Wert nur, wenn der Schlüssel noch nicht vorhanden ist.
+     *
+     * @return der bereits vorhandene Wert oder null, wenn eingefügt wurde
+     */
+    public V putIfAbsent(long key, V value) {
+        V existing = get(key);
+        if (existing != null) {
+            return existing;
+        }
+        put(key, value);
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void resize(int newCapacity) {
+        Table old = table;
+        Table resized = new Table(newCapacity);
+        int mask = newCapacity - 1;
+
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != 0) {
+                int j = slot(key, mask);
+                while (resized.keys[j] != 0) {
+                    j = (j + 1) & mask;
+                }
+                resized.keys[j] = key;
+                resized.values[j] = old.values[i];
+            }
+        }
+
+        this.table = resized;
+        this.resizeThreshold = (int) (newCapacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Fibonacci-Hashing verteilt auch fortlaufende IDs gleichmäßig.
+     */
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int n = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        return Math.max(n, DEFAULT_CAPACITY);
+    }
+}
@@ -0,0 +1,106 @@
+package de.hnu.util;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Feste Anzahl von Sperren, auf die Schlüssel (z.B. Fahrt-IDs) per Hash verteilt werden.
+ *
+ * Zusammengesetzte Änderungen an einer Fahrt sperren nur ihren Streifen statt des
+ * ganzen Service; Operationen auf verschiedenen Fahrten behindern sich nur, wenn
+ * ihre IDs zufällig auf denselben Streifen fallen. Der Speicherbedarf ist unabhängig
+ * von der Anzahl der Fahrten.
+ *
+ * Wer mehrere Schlüssel gleichzeitig braucht, verwendet {@link #withLocks(long[], Supplier)}:
+ * Die Streifen werden dort immer in aufsteigender Reihenfolge gesperrt, sodass keine
+ * Deadlocks entstehen können.
+ */
+public class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes Anzahl der Sperren, wird auf eine Zweierpotenz aufgerundet
+     */
+    public StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Gibt die Sperre für einen Schlüssel zurück.
+     */
+    public Lock lockFor(long key) {
+        return locks[stripe(key)];
+    }
+
+    /**
+     * Führt eine Aktion unter der Sperre des Schlüssels aus.
+     */
+    public <T> T withLock(long key, Supplier<T> action) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Führt eine Aktion unter der Sperre des Schlüssels aus.
+     */
+    public void withLock(long key, Runnable action) {
+        Lock lock = lockFor(key);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Führt eine Aktion unter den Sperren mehrerer Schlüssel aus.
+     * Die Streifen werden in fester Reihenfolge gesperrt und umgekehrt freigegeben.
+     */
+    public <T> T withLocks(long[] keys, Supplier<T> action) {
+        int[] stripes = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            stripes[i] = stripe(keys[i]);
+        }
+        Arrays.sort(stripes);
+
+        int count = 0;
+        for (int i = 0; i < stripes.length; i++) {
+            // Jeden Streifen nur einmal sperren
+            if (i == 0 || stripes[i] != stripes[i - 1]) {
+                stripes[count++] = stripes[i];
+            }
+        }
+        int locked = 0;
+        try {
+            for (; locked < count; locked++) {
+                locks[stripes[locked]].lock();
+            }
+            return action.get();
+        } finally {
+            while (locked > 0) {
+                locks[stripes[--locked]].unlock();
+            }
+        }
+    }
+
+    private int stripe(long key) {
+        // Fibonacci-Hashing wie in LongObjectMap, damit fortlaufende IDs gut streuen
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+}
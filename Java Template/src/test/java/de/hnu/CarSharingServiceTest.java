@@ -0,0 +1,205 @@
+package de.hnu;
+
+import de.hnu.model.Ride;
+import de.hnu.service.SeatPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import jakarta.persistence.LockModeType;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests für {@link CarSharingService} mit einem EntityManager im Speicher.
+ */
+class CarSharingServiceTest {
+
+    private InMemoryEntityManager database;
+    private CarSharingService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        database = new InMemoryEntityManager();
+        service = database.createService();
+        // Ersetzt die Transaktion des Containers: Synchronisationen werden von Hand beendet
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    /**
+     * Beendet die laufende "Transaktion" und startet eine neue für den nächsten Request.
+     */
+    private void finishTransaction(int status) {
+        List<TransactionSynchronization> synchronizations =
+                TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            synchronization.afterCompletion(status);
+        }
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private Ride storeRide(long id, int seats) {
+        Ride ride = new Ride(id, "Fahrer", "Ulm", "Köln", 350, null, null, seats, 4);
+        database.rides.put(id, ride);
+        return ride;
+    }
+
+    @Test
+    void bestEffortBooksRemainingSeatsUnderRowLock() {
+        Ride ride = storeRide(1, 2);
+
+        ResponseEntity<Ride> response = service.bookRide(1, 3, 0, SeatPolicy.BEST_EFFORT, null);
+
+        assertEquals("2", response.getHeaders().getFirst("Booked-Seats"));
+        assertEquals(0, ride.getAvailableSeats());
+        // Lesen und Ändern unter einer Zeilensperre bis zum Commit
+        assertEquals(List.of(LockModeType.PESSIMISTIC_WRITE), database.lockModes);
+    }
+
+    @Test
+    void bestEffortBooksAllSeatsWhenEnoughAreFree() {
+        Ride ride = storeRide(1, 5);
+
+        ResponseEntity<Ride> response = service.bookRide(1, 3, 0, SeatPolicy.BEST_EFFORT, null);
+
+        assertEquals("3", response.getHeaders().getFirst("Booked-Seats"));
+        assertEquals(2, ride.getAvailableSeats());
+    }
+
+    @Test
+    void bestEffortOnFullRideIsConflict() {
+        storeRide(1, 0);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, null));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+    }
+
+    @Test
+    void bestEffortOnUnknownRideIsNotFound() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(7, 2, 0, SeatPolicy.BEST_EFFORT, null));
+
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    @Test
+    void rejectsNonPositiveSeats() {
+        storeRide(1, 2);
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(1, 0, 0, SeatPolicy.BEST_EFFORT, null));
+
+        assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+
+    @Test
+    void retryAfterCommitReplaysResponseWithoutBookingAgain() {
+        Ride ride = storeRide(1, 5);
+
+        ResponseEntity<Ride> first = service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+        finishTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        ResponseEntity<Ride> retry = service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+
+        assertSame(first, retry);
+        assertEquals(3, ride.getAvailableSeats());
+        assertEquals(1, database.lockModes.size());
+    }
+
+    @Test
+    void retryWhileFirstRequestRunsIsConflictWithoutWaiting() {
+        Ride ride = storeRide(1, 5);
+
+        service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+        // Erste Transaktion noch offen: Die Wiederholung darf nicht blockieren
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1"));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatusCode());
+        assertEquals(3, ride.getAvailableSeats());
+    }
+
+    @Test
+    void retryAfterRollbackRunsAgain() {
+        Ride ride = storeRide(1, 5);
+
+        service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+        finishTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        // Der Mock rollt nichts zurück; entscheidend ist, dass erneut gebucht wird
+        ResponseEntity<Ride> retry = service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+
+        assertEquals("2", retry.getHeaders().getFirst("Booked-Seats"));
+        assertEquals(1, ride.getAvailableSeats());
+        assertEquals(2, database.lockModes.size());
+    }
+
+    @Test
+    void retryAfterFailureRunsAgain() {
+        storeRide(1, 0);
+
+        assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1"));
+        Ride ride = storeRide(1, 4);
+        ResponseEntity<Ride> retry = service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+
+        assertEquals("2", retry.getHeaders().getFirst("Booked-Seats"));
+        assertEquals(2, ride.getAvailableSeats());
+    }
+
+    @Test
+    void sameKeyWithDifferentRequestIsUnprocessable() {
+        Ride ride = storeRide(1, 5);
+
+        service.bookRide(1, 2, 0, SeatPolicy.BEST_EFFORT, "key-1");
+        finishTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.bookRide(1, 3, 0, SeatPolicy.BEST_EFFORT, "key-1"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(3, ride.getAvailableSeats());
+    }
+
+    @Test
+    void createRideComparesBodyOfRetry() {
+        Ride ride = new Ride(0, "Fahrer", "Ulm", "Köln", 350, null, null, 3, 4);
+        Ride sameBody = new Ride(0, "Fahrer", "Ulm", "Köln", 350, null, null, 3, 4);
+        Ride otherBody = new Ride(0, "Fahrer", "Ulm", "Bonn", 350, null, null, 3, 4);
+
+        service.createRide(ride, "key-1");
+        finishTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertSame(ride, service.createRide(sameBody, "key-1"));
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> service.createRide(otherBody, "key-1"));
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, e.getStatusCode());
+        assertEquals(List.of(ride), database.persisted);
+    }
+
+    @Test
+    void keyIsScopedPerEndpoint() {
+        storeRide(1, 5);
+        storeRide(2, 5);
+
+        service.bookRide(1, 1, 0, SeatPolicy.BEST_EFFORT, "key-1");
+        finishTransaction(TransactionSynchronization.STATUS_COMMITTED);
+        ResponseEntity<Ride> other = service.bookRide(2, 1, 0, SeatPolicy.BEST_EFFORT, "key-1");
+
+        assertEquals(2, other.getBody().getId());
+    }
+}
@@ -0,0 +1,65 @@
+package de.hnu;
+
+import de.hnu.model.Ride;
+import de.hnu.model.User;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Minimaler EntityManager im Speicher für Tests des {@link CarSharingService} ohne Datenbank.
+ * Unterstützt nur {@code find} und {@code persist}; alles andere wirft eine Exception.
+ */
+final class InMemoryEntityManager implements InvocationHandler {
+
+    final Map<Long, Ride> rides = new HashMap<>();
+    final Map<Long, User> users = new HashMap<>();
+    // Sperrmodus jedes find-Aufrufs mit Sperre, in Aufrufreihenfolge
+    final List<LockModeType> lockModes = new ArrayList<>();
+    final List<Object> persisted = new ArrayList<>();
+
+    /**
+     * Erstellt einen Service, dessen EntityManager auf diese Maps zugreift.
+     */
+    CarSharingService createService() throws ReflectiveOperationException {
+        CarSharingService service = new CarSharingService();
+        EntityManager em = (EntityManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {EntityManager.class}, this);
+        Field field = CarSharingService.class.getDeclaredField("em");
+        field.setAccessible(true);
+        field.set(service, em);
+        return service;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "find":
+                if (args.length == 3 && args[2] instanceof LockModeType lockMode) {
+                    lockModes.add(lockMode);
+                }
+                long id = ((Number) args[1]).longValue();
+                return args[0] == Ride.class ? rides.get(id) : users.get(id);
+            case "persist":
+                persisted.add(args[0]);
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryEntityManager";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
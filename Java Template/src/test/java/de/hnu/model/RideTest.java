@@ -0,0 +1,136 @@
+package de.hnu.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für die atomaren Sitzoperationen von {@link Ride}.
+ */
+class RideTest {
+
+    private static Ride rideWithSeats(int seats) {
+        return new Ride(1, "Fahrer", "Ulm", "Köln", 350, null, null, seats, 4);
+    }
+
+    @Test
+    void reserveTakesAllSeatsOrNone() {
+        Ride ride = rideWithSeats(3);
+
+        assertTrue(ride.tryReserveSeats(2));
+        assertFalse(ride.tryReserveSeats(2));
+        assertEquals(1, ride.getAvailableSeats());
+    }
+
+    @Test
+    void reserveUpToTakesWhatIsLeft() {
+        Ride ride = rideWithSeats(3);
+
+        assertEquals(2, ride.tryReserveUpTo(2));
+        assertEquals(1, ride.tryReserveUpTo(2));
+        assertEquals(0, ride.tryReserveUpTo(2));
+        assertEquals(0, ride.getAvailableSeats());
+    }
+
+    @Test
+    void releaseReturnsSeats() {
+        Ride ride = rideWithSeats(3);
+        ride.tryReserveSeats(3);
+
+        ride.releaseSeats(2);
+
+        assertEquals(2, ride.getAvailableSeats());
+    }
+
+    @Test
+    void rejectsNonPositiveSeatCounts() {
+        Ride ride = rideWithSeats(3);
+
+        assertThrows(IllegalArgumentException.class, () -> ride.tryReserveSeats(0));
+        assertThrows(IllegalArgumentException.class, () -> ride.tryReserveUpTo(-1));
+        assertThrows(IllegalArgumentException.class, () -> ride.releaseSeats(0));
+        assertEquals(3, ride.getAvailableSeats());
+    }
+
+    @Test
+    void holdsAreNotCountedAsBookings() {
+        Ride ride = rideWithSeats(4);
+
+        assertTrue(ride.tryHoldSeats(1));
+        assertEquals(3, ride.getAvailableSeats());
+        assertEquals(4, ride.availableSeatsWithoutHolds());
+
+        // Bestätigt: Platz bleibt abgezogen, ist aber keine Reservierung mehr
+        ride.endHold(1);
+        assertEquals(3, ride.availableSeatsWithoutHolds());
+    }
+
+    @Test
+    void endHoldCannotGoBelowZero() {
+        Ride ride = rideWithSeats(4);
+        ride.tryHoldSeats(1);
+
+        assertThrows(IllegalStateException.class, () -> ride.endHold(2));
+        assertThrows(IllegalArgumentException.class, () -> ride.endHold(0));
+        assertEquals(1, ride.heldSeats());
+
+        ride.endHold(1);
+        assertThrows(IllegalStateException.class, () -> ride.endHold(1));
+        assertEquals(0, ride.heldSeats());
+    }
+
+    @Test
+    void holdsAreNotPartOfTheJson() {
+        Ride ride = rideWithSeats(4);
+        ride.tryHoldSeats(1);
+
+        JsonNode json = new ObjectMapper().valueToTree(ride);
+
+        assertEquals(3, json.get("availableSeats").asInt());
+        assertFalse(json.has("heldSeats"));
+        assertFalse(json.has("availableSeatsWithoutHolds"));
+    }
+
+    @Test
+    void concurrentReservationsNeverOverbook() throws Exception {
+        Ride ride = rideWithSeats(1_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                boolean upTo = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    int reserved = 0;
+                    for (int i = 0; i < 500; i++) {
+                        if (upTo) {
+                            reserved += ride.tryReserveUpTo(3);
+                        } else if (ride.tryReserveSeats(2)) {
+                            reserved += 2;
+                        }
+                    }
+                    return reserved;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+
+            assertEquals(1_000, total);
+            assertEquals(0, ride.getAvailableSeats());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.hnu.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Tests für den Änderungszähler von {@link User}.
+ */
+class UserTest {
+
+    @Test
+    void changesIncreaseVersion() {
+        User user = new User(1, "Aylin", "Sisman", 4.8);
+        int version = user.version();
+
+        user.setLastName("Klefe");
+        assertNotEquals(version, user.version());
+
+        int renamed = user.version();
+        user.setRating(4.9);
+        assertNotEquals(renamed, user.version());
+    }
+
+    @Test
+    void versionIsNotPartOfTheJson() {
+        User user = new User(1, "Aylin", "Sisman", 4.8);
+        user.setLastName("Klefe");
+
+        JsonNode json = new ObjectMapper().valueToTree(user);
+
+        assertEquals("Klefe", json.get("lastName").asText());
+        assertFalse(json.has("version"));
+    }
+}
@@ -0,0 +1,210 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link RideRepository}: ID-Vergabe, Zeitfenster-Suche und gespeicherte Sitz-Änderungen.
+ */
+class RideRepositoryTest {
+
+    private static Ride ride(long id) {
+        return new Ride(id, "Fahrer", "Ulm", "Köln", 350,
+                LocalDate.of(2026, 1, 25), LocalTime.of(14, 0), 3, 4);
+    }
+
+    private static Ride departingAt(LocalDateTime departure) {
+        return new Ride(0, "Fahrer", "Testhausen", "Prüfdorf", 50,
+                departure.toLocalDate(), departure.toLocalTime(), 3, 4);
+    }
+
+    private static long maxId(RideRepository repository) {
+        return repository.findAll().stream().mapToLong(Ride::getId).max().orElse(0);
+    }
+
+    @Test
+    void saveAssignsIdsAboveExistingRides() {
+        RideRepository repository = new RideRepository();
+        long max = maxId(repository);
+
+        Ride saved = repository.save(ride(0));
+
+        assertEquals(max + 1, saved.getId());
+        assertSame(saved, repository.findById(saved.getId()).orElseThrow());
+    }
+
+    @Test
+    void saveAllReservesConsecutiveIds() {
+        RideRepository repository = new RideRepository();
+        long max = maxId(repository);
+
+        List<Ride> saved = repository.saveAll(List.of(ride(0), ride(0), ride(0)));
+
+        assertEquals(max + 1, saved.get(0).getId());
+        assertEquals(max + 2, saved.get(1).getId());
+        assertEquals(max + 3, saved.get(2).getId());
+        assertEquals(max + 4, repository.save(ride(0)).getId());
+    }
+
+    @Test
+    void saveAllDoesNotReuseImportedIds() {
+        RideRepository repository = new RideRepository();
+        long max = maxId(repository);
+        // Die importierte ID liegt mitten im Block, der für die Fahrten ohne ID reserviert würde
+        Ride imported = ride(max + 2);
+
+        repository.saveAll(List.of(ride(0), imported, ride(0)));
+
+        Set<Long> ids = new HashSet<>();
+        for (Ride ride : repository.findAll()) {
+            assertTrue(ids.add(ride.getId()), "doppelte ID " + ride.getId());
+        }
+        assertSame(imported, repository.findById(max + 2).orElseThrow());
+        assertTrue(repository.save(ride(0)).getId() > max + 2);
+    }
+
+    @Test
+    void concurrentSavesGetUniqueIds() throws Exception {
+        RideRepository repository = new RideRepository();
+        int before = repository.findAll().size();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        if (i % 10 == 0) {
+                            repository.saveAll(List.of(ride(0), ride(0)));
+                        } else {
+                            repository.save(ride(0));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<Ride> rides = repository.findAll();
+        assertEquals(before + 4 * 275, rides.size());
+        Set<Long> ids = new HashSet<>();
+        for (Ride ride : rides) {
+            assertTrue(ids.add(ride.getId()), "doppelte ID " + ride.getId());
+        }
+    }
+
+    @Test
+    void seatChangesSurviveReload(@TempDir Path dataDirectory) {
+        RideRepository repository = new RideRepository(dataDirectory);
+        Ride ride = repository.save(ride(0));
+        ride.tryReserveSeats(2);
+        repository.recordSeatChange(ride);
+        repository.close();
+
+        RideRepository reloaded = new RideRepository(dataDirectory);
+        try {
+            assertEquals(1, reloaded.findById(ride.getId()).orElseThrow().getAvailableSeats());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void concurrentSeatChangesSurviveReload(@TempDir Path dataDirectory) throws Exception {
+        RideRepository repository = new RideRepository(dataDirectory);
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rides.add(repository.save(ride(0)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int offset = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        Ride ride = rides.get((i + offset) % rides.size());
+                        if (i % 2 == 0 && ride.tryReserveSeats(1)) {
+                            repository.recordSeatChange(ride);
+                        } else if (i % 2 == 1 && ride.getAvailableSeats() < 3) {
+                            ride.releaseSeats(1);
+                            repository.recordSeatChange(ride);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        repository.close();
+
+        RideRepository reloaded = new RideRepository(dataDirectory);
+        try {
+            for (Ride ride : rides) {
+                assertEquals(ride.getAvailableSeats(),
+                        reloaded.findById(ride.getId()).orElseThrow().getAvailableSeats());
+            }
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void seatHoldsAreNotPersisted(@TempDir Path dataDirectory) {
+        RideRepository repository = new RideRepository(dataDirectory);
+        Ride ride = repository.save(ride(0));
+        ride.tryHoldSeats(2);
+        repository.recordSeatChange(ride);
+        repository.close();
+
+        RideRepository reloaded = new RideRepository(dataDirectory);
+        try {
+            assertEquals(3, reloaded.findById(ride.getId()).orElseThrow().getAvailableSeats());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test
+    void departureWindowWithOpenBounds() {
+        RideRepository repository = new RideRepository();
+        LocalDateTime noon = LocalDateTime.of(2030, 5, 1, 12, 0);
+        Ride early = repository.save(departingAt(noon.minusDays(1)));
+        Ride middle = repository.save(departingAt(noon));
+        Ride late = repository.save(departingAt(noon.plusDays(1)));
+        repository.save(new Ride(0, "Fahrer", "Testhausen", "Prüfdorf", 50, null, null, 3, 4));
+
+        assertEquals(List.of(early, middle),
+                repository.searchRides("Testhausen", "Prüfdorf", null, noon));
+        assertEquals(List.of(middle, late),
+                repository.searchRides("Testhausen", "Prüfdorf", noon, null));
+        // Ganz offen: alle Fahrten mit Abfahrt, sortiert; ohne Datum fällt heraus
+        assertEquals(List.of(early, middle, late),
+                repository.searchRides("Testhausen", "Prüfdorf", null, null));
+        assertEquals(List.of(middle),
+                repository.searchRides("Testhausen", "Prüfdorf", noon, noon));
+    }
+}
@@ -0,0 +1,94 @@
+package de.hnu.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests für {@link TrigramIndex}.
+ */
+class TrigramIndexTest {
+
+    private static TrigramIndex indexOf(String... texts) {
+        TrigramIndex index = new TrigramIndex();
+        for (int row = 0; row < texts.length; row++) {
+            index.add(row, texts[row]);
+        }
+        return index;
+    }
+
+    @Test
+    void findsSubstringsCaseInsensitive() {
+        TrigramIndex index = indexOf("Ulm", "Neu-Ulm", "Stuttgart", "Ulmen");
+
+        assertArrayEquals(new int[] {0, 1, 3}, index.search("ulm", 4));
+        assertArrayEquals(new int[] {2}, index.search("TUTT", 4));
+        assertArrayEquals(new int[0], index.search("Berlin", 4));
+    }
+
+    @Test
+    void foldsUmlauts() {
+        TrigramIndex index = indexOf("München", "Köln", "Muenster");
+
+        assertArrayEquals(new int[] {0}, index.search("muenchen", 3));
+        assertArrayEquals(new int[] {0}, index.search("MÜNCH", 3));
+        assertArrayEquals(new int[] {1}, index.search("koeln", 3));
+    }
+
+    @Test
+    void verifiesCandidatesAfterIntersection() {
+        // Enthält die Trigramme "abc" und "bcd", aber nicht "abcd"
+        TrigramIndex index = indexOf("abcxbcd", "xabcdx");
+
+        assertArrayEquals(new int[] {1}, index.search("abcd", 2));
+    }
+
+    @Test
+    void shortQueriesScanAllRows() {
+        TrigramIndex index = indexOf("Ulm", "Augsburg", "Nürnberg");
+
+        assertArrayEquals(new int[] {1, 2}, index.search("rg", 3));
+        assertArrayEquals(new int[] {0, 1, 2}, index.search("", 3));
+    }
+
+    @Test
+    void onlyReturnsRowsBelowLimit() {
+        TrigramIndex index = indexOf("Ulm", "Neu-Ulm", "Ulmen");
+
+        assertArrayEquals(new int[] {0, 1}, index.search("ulm", 2));
+        assertArrayEquals(new int[] {0}, index.search("ul", 1));
+    }
+
+    @Test
+    void rowsMustBeAddedInOrder() {
+        TrigramIndex index = indexOf("Ulm");
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(2, "Köln"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        TrigramIndex index = new TrigramIndex();
+        for (int row = 0; row < 1_000; row++) {
+            index.add(row, row % 2 == 0 ? "Ulm " + row : "Köln " + row);
+        }
+
+        assertEquals(500, index.search("ulm", 1_000).length);
+        assertArrayEquals(new int[] {999}, index.search("köln 999", 1_000));
+    }
+
+    @Test
+    void matcherReturnsMatchesInRowOrder() {
+        TrigramIndex index = indexOf("Ulm", "Köln", "Neu-Ulm", "Ulmen", "Augsburg");
+        TrigramIndex.Matcher matcher = index.matcher("ulm");
+
+        assertEquals(0, matcher.next(0, 5));
+        assertEquals(2, matcher.next(1, 5));
+        assertEquals(3, matcher.next(3, 5));
+        assertEquals(-1, matcher.next(4, 5));
+        assertEquals(-1, matcher.next(3, 3));
+    }
+}
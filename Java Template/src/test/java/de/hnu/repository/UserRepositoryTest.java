@@ -0,0 +1,101 @@
+package de.hnu.repository;
+
+import de.hnu.model.Ride;
+import de.hnu.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link UserRepository}, vor allem den Namensindex und das Ersetzen von Benutzern.
+ */
+class UserRepositoryTest {
+
+    private UserRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new UserRepository();
+    }
+
+    @Test
+    void findsUserByNormalizedFullName() {
+        User user = repository.save(new User(0, "Jürgen", "Groß", 4.2));
+
+        assertEquals(List.of(user), repository.findByFullName("jürgen groß"));
+        assertEquals(List.of(user), repository.findByFullName("  JUERGEN   Gross "));
+        assertEquals(List.of(), repository.findByFullName("Jürgen"));
+    }
+
+    @Test
+    void renamedUserIsReindexed() {
+        User user = repository.save(new User(0, "Aylin", "Sisman", 4.8));
+
+        user.setLastName("Klefe");
+        repository.save(user);
+
+        assertEquals(List.of(), repository.findByFullName("Aylin Sisman"));
+        assertEquals(List.of(user), repository.findByFullName("Aylin Klefe"));
+    }
+
+    @Test
+    void replacingUserWithSameIdUpdatesIndexesInPlace() {
+        User original = repository.save(new User(0, "Aylin", "Sisman", 4.8));
+        User other = repository.save(new User(0, "Max", "Mustermann", 4.5));
+
+        User replacement = new User(original.getId(), "Aylin", "Klefe", 4.9);
+        repository.save(replacement);
+
+        assertSame(replacement, repository.findById(original.getId()).orElseThrow());
+        // Die Position in der Liste bleibt erhalten
+        assertEquals(List.of(repository.getCurrentUser(), replacement, other), repository.findAll());
+        assertEquals(List.of(), repository.findByFullName("Aylin Sisman"));
+        assertEquals(List.of(replacement), repository.findByFullName("Aylin Klefe"));
+    }
+
+    @Test
+    void duplicateNamesAreAllFound() {
+        User first = repository.save(new User(0, "Max", "Mustermann", 4.5));
+        User second = repository.save(new User(0, "Max", "Mustermann", 3.9));
+
+        assertEquals(List.of(first, second), repository.findByFullName("Max Mustermann"));
+    }
+
+    @Test
+    void findDriverNeedsUniqueName() {
+        repository.save(new User(0, "Max", "Mustermann", 4.5));
+        Ride ride = new Ride(0, "Max Mustermann", "Ulm", "Köln", 350, null, null, 3, 4);
+        assertTrue(repository.findDriver(ride).isPresent());
+
+        repository.save(new User(0, "Max", "Mustermann", 3.9));
+        assertTrue(repository.findDriver(ride).isEmpty());
+    }
+
+    @Test
+    void replacingManyUsersKeepsOrder() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            users.add(new User(0, "Vorname" + i, "Nachname", 4.0));
+        }
+        repository.saveAll(users);
+
+        // Jeden Benutzer durch ein neues Objekt mit derselben ID ersetzen
+        List<User> expected = new ArrayList<>();
+        expected.add(repository.getCurrentUser());
+        for (User user : users) {
+            User replacement = new User(user.getId(), user.getFirstName(), "Neu", 4.5);
+            repository.save(replacement);
+            expected.add(replacement);
+        }
+
+        assertEquals(expected, repository.findAll());
+        assertEquals(List.of(expected.get(1)), repository.findByFullName("Vorname0 Neu"));
+        assertEquals(List.of(), repository.findByFullName("Vorname0 Nachname"));
+    }
+}
@@ -0,0 +1,89 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests für {@link BookingLedger}.
+ */
+class BookingLedgerTest {
+
+    private static Ride ride(long id) {
+        return new Ride(id, "Fahrer", "Ulm", "Köln", 350, null, null, 3, 4);
+    }
+
+    @Test
+    void historyIsPerUserNewestFirst() {
+        BookingLedger ledger = new BookingLedger();
+        Ride first = ride(1);
+        Ride second = ride(2);
+        ledger.record(1, first, 1);
+        ledger.record(1, second, 2);
+        ledger.record(2, first, 1);
+
+        assertEquals(second, ledger.lastBooking(1));
+        assertEquals(List.of(second, first), ledger.history(1));
+        assertEquals(List.of(first), ledger.history(2));
+        assertNull(ledger.lastBooking(3));
+    }
+
+    @Test
+    void removeReturnsSeatsOfNewestBooking() {
+        BookingLedger ledger = new BookingLedger();
+        Ride ride = ride(1);
+        Ride other = ride(2);
+        ledger.record(1, ride, 2);
+        ledger.record(1, other, 1);
+        ledger.record(1, ride, 4);
+
+        assertEquals(4, ledger.remove(1, ride));
+        assertEquals(2, ledger.remove(1, ride));
+        assertEquals(0, ledger.remove(1, ride));
+        assertEquals(List.of(other), ledger.history(1));
+        assertEquals(0, ledger.remove(2, ride));
+    }
+
+    @Test
+    void oldestBookingsAreDropped() {
+        BookingLedger ledger = new BookingLedger(3);
+        for (long id = 1; id <= 5; id++) {
+            ledger.record(1, ride(id), (int) id);
+        }
+
+        assertEquals(List.of(5L, 4L, 3L),
+                ledger.history(1).stream().map(Ride::getId).toList());
+        // Die Plätze wandern beim Entfernen mit ihren Einträgen mit
+        assertEquals(4, ledger.remove(1, ledger.history(1).get(1)));
+        assertEquals(5, ledger.remove(1, ledger.history(1).get(0)));
+        assertEquals(3, ledger.remove(1, ledger.history(1).get(0)));
+    }
+
+    @Test
+    void droppedBookingCanStillBeRemoved() {
+        BookingLedger ledger = new BookingLedger(3);
+        Ride old = ride(1);
+        ledger.record(1, old, 2);
+        for (long id = 2; id <= 6; id++) {
+            ledger.record(1, ride(id), 1);
+        }
+
+        // Nicht mehr im Verlauf, aber weiterhin stornierbar
+        assertEquals(List.of(6L, 5L, 4L), ledger.history(1).stream().map(Ride::getId).toList());
+        assertEquals(2, ledger.remove(1, old));
+        assertEquals(0, ledger.remove(1, old));
+        assertEquals(List.of(6L, 5L, 4L), ledger.history(1).stream().map(Ride::getId).toList());
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new BookingLedger(0));
+        BookingLedger ledger = new BookingLedger();
+        assertThrows(IllegalArgumentException.class, () -> ledger.record(1, ride(1), 0));
+    }
+}
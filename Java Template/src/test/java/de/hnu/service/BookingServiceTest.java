@@ -0,0 +1,498 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+import de.hnu.model.Ride;
+import de.hnu.repository.RideFilter;
+import de.hnu.repository.RideRepository;
+import de.hnu.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link BookingService}.
+ */
+class BookingServiceTest {
+
+    private RideRepository rideRepository;
+    private BookingService bookingService;
+
+    @BeforeEach
+    void setUp() {
+        rideRepository = new RideRepository();
+        bookingService = new BookingService(new UserRepository(), rideRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingService.shutdown();
+    }
+
+    private Ride saveRide(int seats) {
+        return rideRepository.save(new Ride(0, "Fahrer", "Ulm", "Köln", 350, null, null, seats, 4));
+    }
+
+    /**
+     * Freie Plätze laut Spalten-Index (Suchergebnisse), ohne die Fahrt-Objekte.
+     */
+    private long indexedSeats() {
+        return rideRepository.countAvailableSeats(RideFilter.any());
+    }
+
+    private long objectSeats() {
+        return rideRepository.findAll().stream().mapToLong(Ride::getAvailableSeats).sum();
+    }
+
+    @Test
+    void bookingReducesSeatsAndIndex() {
+        Ride ride = saveRide(2);
+
+        assertTrue(bookingService.bookRide(1, ride));
+        assertTrue(bookingService.bookRide(2, ride));
+        assertFalse(bookingService.bookRide(3, ride));
+
+        assertEquals(0, ride.getAvailableSeats());
+        assertEquals(objectSeats(), indexedSeats());
+        assertEquals(ride, bookingService.getLastBookedRide(2));
+    }
+
+    @Test
+    void concurrentBookingsNeverOverbook() throws Exception {
+        Ride ride = saveRide(200);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                long userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    int booked = 0;
+                    for (int i = 0; i < 100; i++) {
+                        if (bookingService.bookRide(userId, ride)) {
+                            booked++;
+                        }
+                    }
+                    return booked;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+
+            assertEquals(200, total);
+            assertEquals(0, ride.getAvailableSeats());
+            assertEquals(objectSeats(), indexedSeats());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Misst den Durchsatz gleichzeitiger Buchungen über viele Fahrten. Die Zahl wird nur
+     * berichtet (abhängig von der Maschine), geprüft wird, dass genau alle Plätze vergeben sind.
+     */
+    @Test
+    void measuresBookingThroughput(TestReporter reporter) throws Exception {
+        int rideCount = 200;
+        int seatsPerRide = 500;
+        int threads = 4;
+        int attemptsPerThread = 50_000;
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < rideCount; i++) {
+            rides.add(saveRide(seatsPerRide));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                long userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    int booked = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        Ride ride = rides.get((int) ((i * 31L + userId * 7) % rideCount));
+                        if (bookingService.bookRide(userId, ride)) {
+                            booked++;
+                        }
+                    }
+                    return booked;
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get();
+            }
+            long nanos = System.nanoTime() - start;
+
+            assertEquals(rideCount * seatsPerRide, total);
+            assertEquals(objectSeats(), indexedSeats());
+            long attempts = (long) threads * attemptsPerThread;
+            reporter.publishEntry("bookingAttemptsPerSecond",
+                    String.valueOf(attempts * 1_000_000_000L / Math.max(nanos, 1)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void concurrentBookingsOnDifferentRidesKeepIndexConsistent() throws Exception {
+        List<Ride> rides = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            rides.add(saveRide(50));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 400; i++) {
+                        Ride ride = rides.get((int) ((i * 7 + userId) % rides.size()));
+                        if (i % 3 == 0) {
+                            bookingService.cancelBooking(userId, ride);
+                        } else {
+                            bookingService.bookRide(userId, ride);
+                        }
+                    }
+                }));
+            }
+            // Gleichzeitig wachsen die Spalten, die Plätze dürfen dabei nicht verloren gehen
+            for (int i = 0; i < 200; i++) {
+                saveRide(1);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void batchBookingBooksAllPositions() {
+        Ride first = saveRide(3);
+        Ride second = saveRide(2);
+
+        // Zwei Positionen auf derselben Fahrt werden zusammengefasst
+        assertTrue(bookingService.bookRides(1, List.of(
+                new SeatRequest(first.getId(), 1),
+                new SeatRequest(second.getId(), 2),
+                new SeatRequest(first.getId(), 1))));
+
+        assertEquals(1, first.getAvailableSeats());
+        assertEquals(0, second.getAvailableSeats());
+        assertEquals(objectSeats(), indexedSeats());
+        assertTrue(bookingService.cancelBooking(1, first));
+        assertEquals(3, first.getAvailableSeats());
+    }
+
+    @Test
+    void batchBookingRollsBackWhenOneRideIsShort() {
+        Ride first = saveRide(3);
+        Ride second = saveRide(1);
+
+        assertFalse(bookingService.bookRides(1, List.of(
+                new SeatRequest(first.getId(), 2),
+                new SeatRequest(second.getId(), 2))));
+
+        assertEquals(3, first.getAvailableSeats());
+        assertEquals(1, second.getAvailableSeats());
+        assertNull(bookingService.getLastBookedRide(1));
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void batchBookingRollsBackOnUnknownRide() {
+        Ride ride = saveRide(3);
+
+        assertFalse(bookingService.bookRides(1, List.of(
+                new SeatRequest(ride.getId(), 1),
+                new SeatRequest(Long.MAX_VALUE, 1))));
+
+        assertEquals(3, ride.getAvailableSeats());
+        assertFalse(bookingService.cancelBooking(1, ride));
+    }
+
+    @Test
+    void batchBookingRejectsNonPositiveSeats() {
+        Ride ride = saveRide(3);
+
+        assertThrows(IllegalArgumentException.class, () -> bookingService.bookRides(1, List.of(
+                new SeatRequest(ride.getId(), 1),
+                new SeatRequest(ride.getId(), 0))));
+        assertEquals(3, ride.getAvailableSeats());
+    }
+
+    @Test
+    void bookingFailsFastWhenDatabaseFallsBehind() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingBookingSink sink = new RecordingBookingSink(0, 0, gate);
+        BookingService persistent = new BookingService(new UserRepository(), rideRepository, sink);
+        Ride ride = saveRide(10_000);
+        int booked = 0;
+        try {
+            // Der Schreib-Thread hängt: irgendwann ist der Puffer voll
+            IllegalStateException rejected = null;
+            long failedCallNanos = 0;
+            while (rejected == null && booked < 10_000) {
+                long start = System.nanoTime();
+                try {
+                    persistent.bookRide(1, ride);
+                    booked++;
+                } catch (IllegalStateException e) {
+                    rejected = e;
+                    failedCallNanos = System.nanoTime() - start;
+                }
+            }
+
+            assertNotNull(rejected);
+            assertTrue(failedCallNanos < BookingService.WRITE_BEHIND_TIMEOUT.toNanos() * 4);
+            // Die abgelehnte Buchung hat keinen Platz genommen
+            assertEquals(10_000 - booked, ride.getAvailableSeats());
+        } finally {
+            gate.countDown();
+            persistent.shutdown();
+        }
+        assertEquals(booked, sink.written().size());
+    }
+
+    @Test
+    void writeBehindKeepsOrderOfInterleavedBookAndCancel() throws Exception {
+        RecordingBookingSink sink = new RecordingBookingSink();
+        BookingService persistent = new BookingService(new UserRepository(), rideRepository, sink);
+        Ride ride = saveRide(3);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    // Freigegebene Plätze gehen sofort an andere Threads: Die Reihenfolge
+                    // im Puffer muss der im Speicher entsprechen
+                    for (int i = 0; i < 2_000; i++) {
+                        if (persistent.bookRide(userId, ride)) {
+                            persistent.cancelBooking(userId, ride);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+            persistent.shutdown();
+        }
+
+        // Die geschriebene Folge nachspielen: Sie darf nie überbuchen und keine
+        // Stornierung vor ihrer Buchung enthalten
+        int seats = 3;
+        int[] openBookings = new int[threads + 1];
+        for (BookingRecord record : sink.written()) {
+            int user = (int) record.getUserId();
+            if (record.getType() == BookingRecord.Type.BOOKED) {
+                seats -= record.getSeats();
+                openBookings[user]++;
+            } else {
+                seats += record.getSeats();
+                openBookings[user]--;
+            }
+            assertTrue(seats >= 0 && seats <= 3, "Sitze nach Sequenz " + record.getSequence() + ": " + seats);
+            assertTrue(openBookings[user] >= 0 && openBookings[user] <= 1,
+                    "Benutzer " + user + " bei Sequenz " + record.getSequence());
+        }
+        assertEquals(ride.getAvailableSeats(), seats);
+        assertEquals(3, seats);
+    }
+
+    @Test
+    void holdTakesSeatsUntilReleased() {
+        Ride ride = saveRide(2);
+
+        SeatHold hold = bookingService.holdSeats(1, ride, 2, Duration.ofMinutes(5));
+        assertEquals(0, ride.getAvailableSeats());
+        assertNull(bookingService.holdSeats(2, ride, 1, Duration.ofMinutes(5)));
+        assertFalse(bookingService.bookRide(2, ride));
+
+        bookingService.releaseHold(hold);
+
+        assertEquals(SeatHold.State.RELEASED, hold.getState());
+        assertEquals(2, ride.getAvailableSeats());
+        assertEquals(0, ride.heldSeats());
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void holdAfterShutdownKeepsNoSeats() {
+        Ride ride = saveRide(2);
+        bookingService.shutdown();
+
+        assertThrows(IllegalStateException.class,
+                () -> bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5)));
+        assertEquals(2, ride.getAvailableSeats());
+        assertEquals(0, ride.heldSeats());
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void expiredHoldReturnsSeats() throws Exception {
+        Ride ride = saveRide(1);
+
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMillis(50));
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        while (hold.isHeld() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(SeatHold.State.EXPIRED, hold.getState());
+        assertEquals(1, ride.getAvailableSeats());
+        assertFalse(bookingService.confirmHold(hold));
+    }
+
+    @Test
+    void confirmedHoldBecomesBooking() {
+        Ride ride = saveRide(2);
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5));
+
+        assertTrue(bookingService.confirmHold(hold));
+        bookingService.releaseHold(hold);
+
+        assertEquals(SeatHold.State.CONFIRMED, hold.getState());
+        assertEquals(1, ride.getAvailableSeats());
+        assertEquals(0, ride.heldSeats());
+        assertEquals(ride, bookingService.getLastBookedRide(1));
+    }
+
+    @Test
+    void releasedHoldGoesToWaitlist() throws Exception {
+        Ride ride = saveRide(1);
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5));
+        WaitlistEntry entry = bookingService.joinWaitlist(2, ride);
+
+        bookingService.releaseHold(hold);
+
+        assertEquals(ride, entry.assignment().get(2, TimeUnit.SECONDS));
+        assertEquals(0, ride.getAvailableSeats());
+        assertEquals(0, ride.availableSeatsWithoutHolds());
+    }
+
+    @Test
+    void allOrNothingBooksNoSeatsWhenTooFewAreFree() {
+        Ride ride = saveRide(2);
+
+        assertEquals(0, bookingService.bookRide(1, ride, 3, SeatPolicy.ALL_OR_NOTHING));
+        assertEquals(2, ride.getAvailableSeats());
+        assertEquals(2, bookingService.bookRide(1, ride, 2, SeatPolicy.ALL_OR_NOTHING));
+        assertEquals(0, ride.getAvailableSeats());
+    }
+
+    @Test
+    void bestEffortBooksRemainingSeats() {
+        Ride ride = saveRide(2);
+
+        assertEquals(2, bookingService.bookRide(1, ride, 3, SeatPolicy.BEST_EFFORT));
+        assertEquals(0, bookingService.bookRide(2, ride, 3, SeatPolicy.BEST_EFFORT));
+        assertEquals(0, ride.getAvailableSeats());
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void cancelFreesAllSeatsOfTheBooking() {
+        Ride ride = saveRide(5);
+        bookingService.bookRide(1, ride, 1, SeatPolicy.ALL_OR_NOTHING);
+        bookingService.bookRide(1, ride, 3, SeatPolicy.ALL_OR_NOTHING);
+
+        // Storniert wird die neueste Buchung (3 Plätze), dann die ältere
+        assertTrue(bookingService.cancelBooking(1, ride));
+        assertEquals(4, ride.getAvailableSeats());
+        assertTrue(bookingService.cancelBooking(1, ride));
+        assertEquals(5, ride.getAvailableSeats());
+        assertFalse(bookingService.cancelBooking(1, ride));
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void oldBookingCanBeCancelledAfterManyNewerOnes() {
+        Ride old = saveRide(1);
+        assertTrue(bookingService.bookRide(1, old));
+        for (int i = 0; i < BookingLedger.DEFAULT_HISTORY_SIZE + 5; i++) {
+            assertTrue(bookingService.bookRide(1, saveRide(1)));
+        }
+
+        assertTrue(bookingService.cancelBooking(1, old));
+        assertEquals(1, old.getAvailableSeats());
+        assertEquals(objectSeats(), indexedSeats());
+    }
+
+    @Test
+    void cancelHandsSeatsToWaitlistInOrder() throws Exception {
+        Ride ride = saveRide(3);
+        bookingService.bookRide(1, ride, 3, SeatPolicy.ALL_OR_NOTHING);
+        WaitlistEntry first = bookingService.joinWaitlist(2, ride);
+        WaitlistEntry second = bookingService.joinWaitlist(3, ride);
+
+        assertTrue(bookingService.cancelBooking(1, ride));
+
+        assertEquals(ride, first.assignment().get(2, TimeUnit.SECONDS));
+        assertEquals(ride, second.assignment().get(2, TimeUnit.SECONDS));
+        assertEquals(1, ride.getAvailableSeats());
+    }
+
+    @Test
+    void confirmHoldRejectsNonPositiveSeats() {
+        Ride ride = saveRide(2);
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> bookingService.confirmHold(hold, 0, SeatPolicy.ALL_OR_NOTHING));
+        assertTrue(hold.isHeld());
+        assertEquals(1, ride.getAvailableSeats());
+    }
+
+    @Test
+    void confirmHoldBooksAdditionalSeats() {
+        Ride ride = saveRide(4);
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5));
+
+        assertEquals(3, bookingService.confirmHold(hold, 3, SeatPolicy.ALL_OR_NOTHING));
+        assertEquals(1, ride.getAvailableSeats());
+
+        assertTrue(bookingService.cancelBooking(1, ride));
+        assertEquals(4, ride.getAvailableSeats());
+    }
+
+    @Test
+    void confirmHoldKeepsHoldWhenTooFewSeatsAreFree() {
+        Ride ride = saveRide(2);
+        SeatHold hold = bookingService.holdSeats(1, ride, 1, Duration.ofMinutes(5));
+
+        assertEquals(0, bookingService.confirmHold(hold, 3, SeatPolicy.ALL_OR_NOTHING));
+        assertTrue(hold.isHeld());
+        assertEquals(2, bookingService.confirmHold(hold, 3, SeatPolicy.BEST_EFFORT));
+        assertEquals(0, ride.getAvailableSeats());
+    }
+}
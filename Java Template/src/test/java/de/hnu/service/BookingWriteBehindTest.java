@@ -0,0 +1,148 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link BookingWriteBehind}.
+ */
+class BookingWriteBehindTest {
+
+    @Test
+    void writesEveryRecordOnceInOrder() {
+        RecordingBookingSink sink = new RecordingBookingSink(100, 0, null);
+        BookingWriteBehind writeBehind = new BookingWriteBehind(sink, 64, 8);
+
+        for (int i = 0; i < 50; i++) {
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, i, 1);
+        }
+        writeBehind.close();
+
+        List<BookingRecord> written = sink.written();
+        assertEquals(50, written.size());
+        for (int i = 0; i < written.size(); i++) {
+            // Nummern setzen nach der höchsten gespeicherten fort, Reihenfolge wie eingereiht
+            assertEquals(101 + i, written.get(i).getSequence());
+            assertEquals(i, written.get(i).getRideId());
+        }
+        assertEquals(50, writeBehind.getStats().flushedRecords());
+    }
+
+    @Test
+    void failedBatchesAreRetriedWithoutGapsOrDuplicates() throws Exception {
+        RecordingBookingSink sink = new RecordingBookingSink(0, 3, null);
+        BookingWriteBehind writeBehind = new BookingWriteBehind(sink, 1_000, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                long userId = t + 1;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        assertTrue(writeBehind.awaitCapacity(5, TimeUnit.SECONDS));
+                        writeBehind.enqueue(BookingRecord.Type.BOOKED, userId, i, 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        writeBehind.close();
+
+        List<BookingRecord> written = sink.written();
+        assertEquals(400, written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(i + 1, written.get(i).getSequence());
+        }
+        assertTrue(writeBehind.getStats().failedFlushes() > 0);
+    }
+
+    @Test
+    void fullBufferRejectsAfterTimeout() {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingBookingSink sink = new RecordingBookingSink(0, 0, gate);
+        BookingWriteBehind writeBehind = new BookingWriteBehind(sink, 2, 1);
+        try {
+            // Der erste Vorgang hängt im Schreib-Thread, zwei weitere füllen den Puffer
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 1, 1);
+            waitUntilQueueDepth(writeBehind, 0);
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 2, 1);
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 3, 1);
+
+            long start = System.nanoTime();
+            assertFalse(writeBehind.awaitCapacity(100, TimeUnit.MILLISECONDS));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+            assertEquals(1, writeBehind.getStats().rejectedSubmits());
+        } finally {
+            gate.countDown();
+            writeBehind.close();
+        }
+        assertEquals(3, sink.written().size());
+    }
+
+    @Test
+    void waitingSubmitContinuesWhenBufferDrains() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        RecordingBookingSink sink = new RecordingBookingSink(0, 0, gate);
+        BookingWriteBehind writeBehind = new BookingWriteBehind(sink, 1, 1);
+        try {
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 1, 1);
+            waitUntilQueueDepth(writeBehind, 0);
+            writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 2, 1);
+
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<Boolean> waiting = executor.submit(() -> writeBehind.awaitCapacity(5, TimeUnit.SECONDS));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+                while (writeBehind.getStats().backpressureWaits() == 0 && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                assertFalse(waiting.isDone());
+
+                // Datenbank wieder erreichbar: der Schreib-Thread leert den Puffer
+                gate.countDown();
+                assertTrue(waiting.get(5, TimeUnit.SECONDS));
+            } finally {
+                executor.shutdown();
+            }
+        } finally {
+            gate.countDown();
+            writeBehind.close();
+        }
+    }
+
+    @Test
+    void closedWriteBehindRejectsRecords() {
+        BookingWriteBehind writeBehind = new BookingWriteBehind(new RecordingBookingSink());
+        writeBehind.close();
+
+        assertThrows(IllegalStateException.class,
+                () -> writeBehind.enqueue(BookingRecord.Type.BOOKED, 1, 1, 1));
+        assertThrows(IllegalStateException.class,
+                () -> writeBehind.awaitCapacity(1, TimeUnit.MILLISECONDS));
+    }
+
+    private static void waitUntilQueueDepth(BookingWriteBehind writeBehind, int depth) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (writeBehind.getStats().queueDepth() != depth && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(depth, writeBehind.getStats().queueDepth());
+    }
+}
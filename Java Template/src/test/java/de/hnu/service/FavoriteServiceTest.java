@@ -0,0 +1,98 @@
+package de.hnu.service;
+
+import de.hnu.model.Ride;
+import de.hnu.model.User;
+import de.hnu.repository.RideRepository;
+import de.hnu.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link FavoriteService}.
+ */
+class FavoriteServiceTest {
+
+    private UserRepository userRepository;
+    private RideRepository rideRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new UserRepository();
+        rideRepository = new RideRepository();
+    }
+
+    private Ride saveRide(String destination) {
+        return rideRepository.save(new Ride(0, "Fahrer", "Ulm", destination, 350, null, null, 3, 4));
+    }
+
+    @Test
+    void addContainsAndRemove() {
+        FavoriteService service = new FavoriteService(userRepository, rideRepository);
+        User user = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+        Ride first = saveRide("Köln");
+        Ride second = saveRide("Bonn");
+
+        assertTrue(service.addFavorite(user.getId(), first));
+        assertFalse(service.addFavorite(user.getId(), first));
+        assertTrue(service.addFavorite(user.getId(), second));
+        assertTrue(service.removeFavorite(user.getId(), first));
+
+        assertFalse(service.isFavorite(user.getId(), first));
+        assertTrue(service.isFavorite(user.getId(), second));
+        assertEquals(List.of(second), service.getFavorites(user.getId()));
+        assertEquals(0, service.getUsersWhoFavorited(first).cardinality());
+    }
+
+    @Test
+    void duplicateFavoritesAreMergedWhenIndexed() {
+        Ride a = saveRide("Köln");
+        Ride b = saveRide("Bonn");
+        User user = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+        user.setFavorites(new ArrayList<>(List.of(a, b, a)));
+        FavoriteService service = new FavoriteService(userRepository, rideRepository);
+
+        assertEquals(List.of(a, b), service.getFavorites(user.getId()));
+        // Ohne Bereinigung bliebe hier das zweite A in der Liste stehen
+        assertTrue(service.removeFavorite(user.getId(), a));
+        assertEquals(List.of(b), service.getFavorites(user.getId()));
+        assertFalse(service.isFavorite(user.getId(), a));
+    }
+
+    @Test
+    void userIdBeyondBitmapRangeIsSkippedInReverseIndex() {
+        Ride ride = saveRide("Köln");
+        User user = new User(Integer.MAX_VALUE + 1L, "Aylin", "Sisman", 4.8);
+        user.setFavorites(new ArrayList<>(List.of(ride)));
+        userRepository.save(user);
+
+        // Darf den Start nicht verhindern
+        FavoriteService service = new FavoriteService(userRepository, rideRepository);
+
+        assertTrue(service.isFavorite(user.getId(), ride));
+        assertEquals(0, service.getUsersWhoFavorited(ride).cardinality());
+        assertTrue(service.removeFavorite(user.getId(), ride));
+        assertTrue(service.addFavorite(user.getId(), ride));
+    }
+
+    @Test
+    void reverseIndexFollowsFavorites() {
+        FavoriteService service = new FavoriteService(userRepository, rideRepository);
+        User first = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+        User second = userRepository.save(new User(0, "Max", "Mustermann", 4.5));
+        Ride ride = saveRide("Köln");
+
+        service.addFavorite(first.getId(), ride);
+        service.addFavorite(second.getId(), ride);
+        service.removeFavorite(first.getId(), ride);
+
+        assertFalse(service.getUsersWhoFavorited(ride).contains((int) first.getId()));
+        assertTrue(service.getUsersWhoFavorited(ride).contains((int) second.getId()));
+    }
+}
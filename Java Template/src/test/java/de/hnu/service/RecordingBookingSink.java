@@ -0,0 +1,65 @@
+package de.hnu.service;
+
+import de.hnu.model.BookingRecord;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link BookingSink} für Tests: merkt sich alle geschriebenen Vorgänge in Reihenfolge,
+ * kann jeden n-ten Schreibversuch fehlschlagen lassen oder bis zur Freigabe blockieren.
+ */
+class RecordingBookingSink implements BookingSink {
+
+    private final long initialSequence;
+    private final int failEvery;
+    private final CountDownLatch gate;
+    private final AtomicInteger attempts = new AtomicInteger();
+    private final List<BookingRecord> written = new ArrayList<>();
+
+    RecordingBookingSink() {
+        this(0, 0, null);
+    }
+
+    /**
+     * @param initialSequence höchste schon "gespeicherte" Sequenznummer
+     * @param failEvery jeder n-te Schreibversuch schlägt fehl (0 = nie)
+     * @param gate Schreibversuche warten, bis der Latch auf 0 steht (null = nicht warten)
+     */
+    RecordingBookingSink(long initialSequence, int failEvery, CountDownLatch gate) {
+        this.initialSequence = initialSequence;
+        this.failEvery = failEvery;
+        this.gate = gate;
+    }
+
+    @Override
+    public long lastSequence() {
+        return initialSequence;
+    }
+
+    @Override
+    public void write(List<BookingRecord> batch) throws Exception {
+        if (gate != null) {
+            gate.await();
+        }
+        if (failEvery > 0 && attempts.incrementAndGet() % failEvery == 0) {
+            throw new IllegalStateException("erwarteter Testfehler");
+        }
+        synchronized (written) {
+            for (BookingRecord record : batch) {
+                // Wiederholte Batches wie JpaBookingSink anhand der Sequenz überspringen
+                if (written.isEmpty() || record.getSequence() > written.get(written.size() - 1).getSequence()) {
+                    written.add(record);
+                }
+            }
+        }
+    }
+
+    List<BookingRecord> written() {
+        synchronized (written) {
+            return new ArrayList<>(written);
+        }
+    }
+}
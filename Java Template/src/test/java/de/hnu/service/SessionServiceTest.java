@@ -0,0 +1,176 @@
+package de.hnu.service;
+
+import de.hnu.model.User;
+import de.hnu.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link SessionService}.
+ */
+class SessionServiceTest {
+
+    private UserRepository userRepository;
+    private SessionService sessionService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = new UserRepository();
+        sessionService = new SessionService(userRepository);
+    }
+
+    @Test
+    void loginCreatesIndependentSessions() {
+        User other = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+
+        String first = sessionService.loginDefaultUser();
+        String second = sessionService.login(other.getId());
+
+        assertNotEquals(first, second);
+        assertEquals(userRepository.getCurrentUser().getId(), sessionService.getUserId(first));
+        assertEquals(other.getId(), sessionService.getUserId(second));
+        assertEquals("AS", sessionService.getUserInitials(second));
+    }
+
+    @Test
+    void loginRejectsUnknownUser() {
+        assertThrows(IllegalArgumentException.class, () -> sessionService.login(-1));
+    }
+
+    @Test
+    void logoutEndsOnlyThatSession() {
+        String first = sessionService.loginDefaultUser();
+        String second = sessionService.loginDefaultUser();
+
+        sessionService.logout(first);
+
+        assertFalse(sessionService.isLoggedIn(first));
+        assertTrue(sessionService.isLoggedIn(second));
+        assertThrows(IllegalStateException.class, () -> sessionService.getUserId(first));
+    }
+
+    @Test
+    void idleSessionExpires() throws Exception {
+        SessionService shortLived = new SessionService(userRepository, Duration.ofMillis(50));
+        String token = shortLived.loginDefaultUser();
+        assertTrue(shortLived.isLoggedIn(token));
+
+        Thread.sleep(120);
+
+        assertFalse(shortLived.isLoggedIn(token));
+        assertThrows(IllegalStateException.class, () -> shortLived.getUserDisplay(token));
+    }
+
+    @Test
+    void renewKeepsValidSession() {
+        String token = sessionService.loginDefaultUser();
+        long userId = sessionService.getUserId(token);
+
+        assertEquals(token, sessionService.renewIfExpired(token, userId));
+        assertEquals(1, sessionService.getSessionCount());
+    }
+
+    @Test
+    void renewReplacesExpiredSessionForSameUser() throws Exception {
+        User user = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+        SessionService shortLived = new SessionService(userRepository, Duration.ofMillis(50));
+        String token = shortLived.login(user.getId());
+
+        // Wie ein Fenster, dessen Details lange offen waren
+        Thread.sleep(120);
+        String renewed = shortLived.renewIfExpired(token, user.getId());
+
+        assertNotEquals(token, renewed);
+        assertFalse(shortLived.isLoggedIn(token));
+        assertEquals(user.getId(), shortLived.getUserId(renewed));
+        assertEquals("AS", shortLived.getUserInitials(renewed));
+    }
+
+    @Test
+    void renewAfterLogoutStartsNewSession() {
+        String token = sessionService.loginDefaultUser();
+        long userId = sessionService.getUserId(token);
+        sessionService.logout(token);
+
+        String renewed = sessionService.renewIfExpired(token, userId);
+
+        assertTrue(sessionService.isLoggedIn(renewed));
+        assertEquals(userId, sessionService.getUserId(renewed));
+    }
+
+    @Test
+    void renewForUnknownUserFails() {
+        String token = sessionService.loginDefaultUser();
+        sessionService.logout(token);
+
+        assertThrows(IllegalArgumentException.class, () -> sessionService.renewIfExpired(token, -1));
+    }
+
+    @Test
+    void rejectsNonPositiveTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionService(userRepository, Duration.ZERO));
+    }
+
+    @Test
+    void displayIsCachedUntilUserChanges() {
+        User user = userRepository.save(new User(0, "Aylin", "Sisman", 4.8));
+        String token = sessionService.login(user.getId());
+
+        UserDisplay first = sessionService.getUserDisplay(token);
+        assertSame(first, sessionService.getUserDisplay(token));
+
+        // Neue Version des Benutzers: Anzeigedaten werden neu berechnet
+        user.setLastName("Klefe");
+        UserDisplay changed = sessionService.getUserDisplay(token);
+
+        assertNotSame(first, changed);
+        assertEquals("AK", changed.initials());
+        assertEquals("Aylin Klefe", changed.fullName());
+        assertSame(changed, sessionService.getUserDisplay(token));
+    }
+
+    @Test
+    void navigationAllocatesNoDisplayStrings() {
+        String token = sessionService.loginDefaultUser();
+        // Warmlaufen, damit der JIT kurzlebige Objekte (z.B. Optional) wegoptimieren kann
+        for (int i = 0; i < 50_000; i++) {
+            navigate(token);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < 10_000; i++) {
+            navigate(token);
+        }
+        long perNavigation = (allocatedBytes() - before) / 10_000;
+
+        // Schon ein einziger neuer String (Initialen oder Name) wären mindestens 40 Byte
+        assertTrue(perNavigation < 40, perNavigation + " Byte pro Navigation");
+    }
+
+    /**
+     * Was jede View beim Aufbau für den Header abfragt.
+     */
+    private int navigate(String token) {
+        UserDisplay display = sessionService.getUserDisplay(token);
+        return sessionService.getUserInitials(token).length() + display.fullName().length();
+    }
+
+    private static long allocatedBytes() {
+        // Zählt die Bytes, die dieser Thread bisher angelegt hat (HotSpot-Erweiterung)
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return ((com.sun.management.ThreadMXBean) threads)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,213 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link CompressedBitmap}, inklusive Wechsel zwischen Array- und Bitmap-Containern.
+ */
+class CompressedBitmapTest {
+
+    // Größe eines Bitmap-Containers (1024 longs)
+    private static final long BITMAP_BYTES = 8192;
+
+    private static int[] toArray(TreeSet<Integer> set) {
+        return set.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void addContainsRemove() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.add(5));
+        assertFalse(bitmap.add(5));
+        assertTrue(bitmap.add(70_000));
+        assertTrue(bitmap.contains(5));
+        assertTrue(bitmap.contains(70_000));
+        assertFalse(bitmap.contains(6));
+        assertFalse(bitmap.contains(-1));
+        assertEquals(2, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(5));
+        assertFalse(bitmap.remove(5));
+        assertArrayEquals(new int[] {70_000}, bitmap.toArray());
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+    }
+
+    @Test
+    void emptyBlocksAreDropped() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        bitmap.add(1);
+        bitmap.add(200_000);
+
+        bitmap.remove(1);
+        bitmap.remove(200_000);
+
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.toArray().length);
+    }
+
+    @Test
+    void denseBlockUsesFixedSizeBitmap() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 60_000; value++) {
+            bitmap.add(value);
+        }
+
+        // Als Array wären es 120 KB, als Bitmap bleibt es bei 8 KB
+        assertEquals(60_000, bitmap.cardinality());
+        assertTrue(bitmap.sizeInBytes() < BITMAP_BYTES + 100);
+    }
+
+    @Test
+    void bitmapTurnsBackIntoArrayWhenSparse() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value = 0; value < 5_000; value++) {
+            bitmap.add(value);
+        }
+        for (int value = 10; value < 5_000; value++) {
+            bitmap.remove(value);
+        }
+
+        // Eine Kopie eines Array-Containers ist auf seine Werte gekürzt, eine Bitmap nicht
+        CompressedBitmap copy = bitmap.copy();
+        assertTrue(copy.sizeInBytes() < 100);
+        assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, copy.toArray());
+    }
+
+    @Test
+    void conversionAtArrayLimitKeepsValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        // Jeder zweite Wert im ersten Block: 4096 Werte passen gerade noch ins Array
+        for (int value = 0; value < 8192; value += 2) {
+            bitmap.add(value);
+        }
+
+        bitmap.add(1);
+        assertEquals(4097, bitmap.cardinality());
+        assertTrue(bitmap.contains(1));
+        assertTrue(bitmap.contains(8190));
+        assertFalse(bitmap.contains(3));
+
+        bitmap.remove(1);
+        assertEquals(4096, bitmap.cardinality());
+        assertFalse(bitmap.contains(1));
+        assertTrue(bitmap.contains(8190));
+        assertFalse(bitmap.remove(1));
+    }
+
+    @Test
+    void intersectionOfBitmapsIsCompact() {
+        CompressedBitmap a = new CompressedBitmap();
+        CompressedBitmap b = new CompressedBitmap();
+        for (int value = 0; value < 10_000; value++) {
+            a.add(value);
+            b.add(value + 9_990);
+        }
+
+        CompressedBitmap common = CompressedBitmap.and(a, b);
+
+        assertEquals(10, common.cardinality());
+        assertTrue(common.sizeInBytes() < 100);
+    }
+
+    @Test
+    void toArrayIsSortedAcrossBlocksAndContainers() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        // Block 2 dicht (Bitmap), Block 0 dünn (Array), in gemischter Reihenfolge
+        for (int value = 2 << 16; value < (2 << 16) + 10_000; value++) {
+            bitmap.add(value);
+            expected.add(value);
+        }
+        for (int value = 9; value >= 0; value--) {
+            bitmap.add(value * 3);
+            expected.add(value * 3);
+        }
+
+        assertArrayEquals(toArray(expected), bitmap.toArray());
+    }
+
+    @Test
+    void andOrMatchSetOperations() {
+        Random random = new Random(3);
+        for (int round = 0; round < 20; round++) {
+            CompressedBitmap a = new CompressedBitmap();
+            CompressedBitmap b = new CompressedBitmap();
+            TreeSet<Integer> setA = new TreeSet<>();
+            TreeSet<Integer> setB = new TreeSet<>();
+            // Abwechselnd dünne und dichte Mengen, damit alle Container-Kombinationen vorkommen
+            int rangeA = round % 2 == 0 ? 200_000 : 6_000;
+            int rangeB = round % 3 == 0 ? 200_000 : 6_000;
+            for (int i = 0; i < 5_000; i++) {
+                int x = random.nextInt(rangeA);
+                int y = random.nextInt(rangeB);
+                a.add(x);
+                setA.add(x);
+                b.add(y);
+                setB.add(y);
+            }
+
+            TreeSet<Integer> union = new TreeSet<>(setA);
+            union.addAll(setB);
+            TreeSet<Integer> intersection = new TreeSet<>(setA);
+            intersection.retainAll(setB);
+
+            assertArrayEquals(toArray(union), CompressedBitmap.or(a, b).toArray());
+            assertArrayEquals(toArray(intersection), CompressedBitmap.and(a, b).toArray());
+            // Die Operanden bleiben unverändert
+            assertArrayEquals(toArray(setA), a.toArray());
+            assertArrayEquals(toArray(setB), b.toArray());
+        }
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompressedBitmap original = new CompressedBitmap();
+        for (int value = 0; value < 5_000; value++) {
+            original.add(value);
+        }
+
+        CompressedBitmap copy = original.copy();
+        copy.remove(0);
+        copy.add(100_000);
+
+        assertTrue(original.contains(0));
+        assertFalse(original.contains(100_000));
+        assertEquals(5_000, original.cardinality());
+        assertEquals(5_000, copy.cardinality());
+    }
+
+    @Test
+    void matchesTreeSetUnderRandomAddsAndRemoves() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 100_000; i++) {
+            // Dichter Bereich um die Container-Grenze, damit oft umgewandelt wird
+            int value = random.nextInt(9_000) + (random.nextBoolean() ? 0 : 1 << 16);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), bitmap.remove(value));
+            } else {
+                assertEquals(expected.add(value), bitmap.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(toArray(expected), bitmap.toArray());
+    }
+}
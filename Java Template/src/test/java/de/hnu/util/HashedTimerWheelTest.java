@@ -0,0 +1,118 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link HashedTimerWheel}.
+ */
+class HashedTimerWheelTest {
+
+    // 10 ms pro Tick, 8 Fächer: eine Umdrehung dauert 80 ms
+    private final HashedTimerWheel wheel = new HashedTimerWheel(10, TimeUnit.MILLISECONDS, 8, "test-wheel");
+
+    @AfterEach
+    void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    void expiresNotBeforeDelay() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicLong expiredAt = new AtomicLong();
+        long start = System.nanoTime();
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(() -> {
+            expiredAt.set(System.nanoTime());
+            done.countDown();
+        }, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(expiredAt.get() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        assertTrue(timeout.isExpired());
+    }
+
+    @Test
+    void waitsForSeveralRounds() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        wheel.schedule(done::countDown, 250, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void cancelledTimeoutDoesNotRun() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(runs::incrementAndGet, 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        wheel.schedule(later::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(later.await(2, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(timeout.isCancelled());
+        assertFalse(timeout.isExpired());
+    }
+
+    @Test
+    void cancelAfterExpiryFails() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        HashedTimerWheel.Timeout timeout = wheel.schedule(done::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    void runsEveryScheduledTimeoutOnce() throws Exception {
+        int count = 1_000;
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < count; i++) {
+            wheel.schedule(() -> {
+                runs.incrementAndGet();
+                done.countDown();
+            }, i % 200, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(count, runs.get());
+    }
+
+    @Test
+    void failingTaskDoesNotStopWheel() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+
+        wheel.schedule(() -> {
+            throw new IllegalStateException("erwarteter Testfehler");
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.schedule(done::countDown, 40, TimeUnit.MILLISECONDS);
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void scheduleAfterStopFails() {
+        wheel.stop();
+
+        assertThrows(IllegalStateException.class, () -> wheel.schedule(() -> { }, 10, TimeUnit.MILLISECONDS));
+    }
+}
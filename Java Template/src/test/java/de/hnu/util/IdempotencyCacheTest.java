@@ -0,0 +1,89 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link IdempotencyCache}.
+ */
+class IdempotencyCacheTest {
+
+    private static final long ONE_HOUR = 3_600_000;
+
+    @Test
+    void firstClaimOwnsKeyAndRetryGetsResponse() {
+        IdempotencyCache cache = new IdempotencyCache(10, ONE_HOUR);
+
+        IdempotencyCache.Claim first = cache.claim("k", "body");
+        IdempotencyCache.Claim running = cache.claim("k", "body");
+        cache.complete("k", "antwort");
+        IdempotencyCache.Claim retry = cache.claim("k", "body");
+
+        assertTrue(first.owner());
+        // Gleichzeitige Wiederholung teilt sich die Antwort des ersten Requests
+        assertFalse(running.owner());
+        assertTrue(running.sameRequest());
+        assertEquals("antwort", running.response().getNow(null));
+        assertFalse(retry.owner());
+        assertEquals("antwort", retry.response().getNow(null));
+    }
+
+    @Test
+    void runningRequestIsNotDone() {
+        IdempotencyCache cache = new IdempotencyCache(10, ONE_HOUR);
+
+        cache.claim("k", "body");
+
+        assertFalse(cache.claim("k", "body").response().isDone());
+    }
+
+    @Test
+    void differentRequestWithSameKeyIsReported() {
+        IdempotencyCache cache = new IdempotencyCache(10, ONE_HOUR);
+        cache.claim("k", "seats=2");
+        cache.complete("k", "antwort");
+
+        IdempotencyCache.Claim other = cache.claim("k", "seats=3");
+
+        assertFalse(other.owner());
+        assertFalse(other.sameRequest());
+    }
+
+    @Test
+    void abandonedKeyCanBeClaimedAgain() {
+        IdempotencyCache cache = new IdempotencyCache(10, ONE_HOUR);
+        IdempotencyCache.Claim first = cache.claim("k", "body");
+
+        cache.abandon("k", new IllegalStateException("fehlgeschlagen"));
+
+        assertTrue(first.response().isCompletedExceptionally());
+        assertTrue(cache.claim("k", "body").owner());
+    }
+
+    @Test
+    void expiredResponseIsRemoved() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(10, 20);
+        cache.claim("k", "body");
+        cache.complete("k", "antwort");
+
+        Thread.sleep(50);
+
+        assertTrue(cache.claim("k", "body").owner());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void oldestKeyIsEvictedWhenFull() {
+        IdempotencyCache cache = new IdempotencyCache(2, ONE_HOUR);
+        cache.claim("a", "body");
+        cache.claim("b", "body");
+        cache.claim("c", "body");
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.claim("a", "body").owner());
+        assertFalse(cache.claim("c", "body").owner());
+    }
+}
@@ -0,0 +1,118 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link LongIntMap}, vor allem das Entfernen mit Rückwärtsverschiebung.
+ */
+class LongIntMapTest {
+
+    private static final int MISSING = -1;
+
+    @Test
+    void putGetAndOverwrite() {
+        LongIntMap map = new LongIntMap();
+        map.put(1, 10);
+        map.put(2, 20);
+        map.put(1, 11);
+
+        assertEquals(11, map.get(1, MISSING));
+        assertEquals(20, map.get(2, MISSING));
+        assertEquals(MISSING, map.get(3, MISSING));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void zeroKeyAndZeroValue() {
+        LongIntMap map = new LongIntMap();
+        assertFalse(map.containsKey(0));
+
+        map.put(0, 0);
+        map.put(5, 0);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(0, map.get(0, MISSING));
+        assertEquals(0, map.get(5, MISSING));
+        assertEquals(0, map.remove(0, MISSING));
+        assertFalse(map.containsKey(0));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        LongIntMap map = new LongIntMap();
+
+        assertTrue(map.putIfAbsent(7, 1));
+        assertFalse(map.putIfAbsent(7, 2));
+        assertEquals(1, map.get(7, MISSING));
+    }
+
+    @Test
+    void removeReturnsValueOrMissing() {
+        LongIntMap map = new LongIntMap();
+        map.put(3, 30);
+
+        assertEquals(30, map.remove(3, MISSING));
+        assertEquals(MISSING, map.remove(3, MISSING));
+        assertEquals(MISSING, map.get(3, MISSING));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    void removeKeepsProbingChainsIntact() {
+        // Viele Schlüssel in einer kleinen Tabelle: lange Ketten, auch über das Tabellenende hinweg
+        LongIntMap map = new LongIntMap(4);
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; key <= 12; key++) {
+            map.put(key * 1024, (int) key);
+            keys.add(key * 1024);
+        }
+
+        // Jeden zweiten Schlüssel entfernen; alle anderen müssen weiter gefunden werden
+        for (int i = 0; i < keys.size(); i += 2) {
+            assertEquals(i + 1, map.remove(keys.get(i), MISSING));
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            int expected = i % 2 == 0 ? MISSING : i + 1;
+            assertEquals(expected, map.get(keys.get(i), MISSING), "Schlüssel " + keys.get(i));
+        }
+        assertEquals(6, map.size());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Kleiner Schlüsselraum, damit oft entfernt und wieder eingefügt wird
+            long key = random.nextInt(2_000) - 100;
+            if (random.nextInt(3) == 0) {
+                Integer removed = expected.remove(key);
+                assertEquals(removed == null ? MISSING : removed, map.remove(key, MISSING));
+            } else {
+                int value = random.nextInt(1_000_000);
+                expected.put(key, value);
+                map.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = -100; key < 1_900; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? MISSING : value, map.get(key, MISSING), "Schlüssel " + key);
+            assertEquals(value != null, map.containsKey(key));
+        }
+    }
+}
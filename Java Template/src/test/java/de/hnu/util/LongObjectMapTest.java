@@ -0,0 +1,113 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link LongObjectMap}.
+ */
+class LongObjectMapTest {
+
+    @Test
+    void putAndGet() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, "a"));
+        assertNull(map.put(2, "b"));
+
+        assertEquals("a", map.get(1));
+        assertEquals("b", map.get(2));
+        assertNull(map.get(3));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void putReplacesExistingValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(7, "alt");
+
+        assertEquals("alt", map.put(7, "neu"));
+        assertEquals("neu", map.get(7));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void zeroKeyIsStoredSeparately() {
+        // 0 markiert intern leere Slots
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertFalse(map.containsKey(0));
+
+        map.put(0, "null");
+        map.put(16, "sechzehn");
+
+        assertEquals("null", map.get(0));
+        assertEquals("sechzehn", map.get(16));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    void negativeKeys() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        map.put(-1, "minus eins");
+        map.put(Long.MIN_VALUE, "min");
+
+        assertEquals("minus eins", map.get(-1));
+        assertEquals("min", map.get(Long.MIN_VALUE));
+        assertNull(map.get(1));
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    void putIfAbsentKeepsExistingValue() {
+        LongObjectMap<String> map = new LongObjectMap<>();
+        assertNull(map.putIfAbsent(5, "erster"));
+        assertEquals("erster", map.putIfAbsent(5, "zweiter"));
+        assertEquals("erster", map.get(5));
+    }
+
+    @Test
+    void growsBeyondInitialCapacity() {
+        LongObjectMap<Long> map = new LongObjectMap<>(2);
+        for (long id = 1; id <= 10_000; id++) {
+            map.put(id, id * 10);
+        }
+
+        assertEquals(10_000, map.size());
+        for (long id = 1; id <= 10_000; id++) {
+            assertEquals(id * 10, map.get(id));
+        }
+        assertNull(map.get(10_001));
+    }
+
+    @Test
+    void matchesHashMapForRandomKeys() {
+        LongObjectMap<Object> map = new LongObjectMap<>();
+        Map<Long, Object> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            long key = random.nextLong() >> random.nextInt(64);
+            Object value = new Object();
+            assertSame(expected.put(key, value), map.put(key, value));
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Object> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package de.hnu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests für {@link StripedLocks}, vor allem das Sperren mehrerer Schlüssel.
+ */
+class StripedLocksTest {
+
+    @Test
+    void withLocksHoldsEveryStripeExactlyOnce() {
+        StripedLocks locks = new StripedLocks(4);
+        // Mehr Schlüssel als Streifen und doppelte Schlüssel
+        long[] keys = {1, 2, 3, 4, 5, 6, 7, 8, 3, 3};
+
+        locks.withLocks(keys, () -> {
+            for (long key : keys) {
+                ReentrantLock lock = (ReentrantLock) locks.lockFor(key);
+                assertTrue(lock.isHeldByCurrentThread());
+                assertEquals(1, lock.getHoldCount());
+            }
+            return null;
+        });
+
+        for (long key : keys) {
+            assertFalse(((ReentrantLock) locks.lockFor(key)).isLocked());
+        }
+    }
+
+    @Test
+    void withLocksReleasesAllStripesOnException() {
+        StripedLocks locks = new StripedLocks(8);
+        long[] keys = {10, 20, 30};
+
+        assertThrows(IllegalStateException.class, () -> locks.withLocks(keys, () -> {
+            throw new IllegalStateException("erwarteter Testfehler");
+        }));
+
+        for (long key : keys) {
+            assertFalse(((ReentrantLock) locks.lockFor(key)).isLocked());
+        }
+    }
+
+    @Test
+    void opposingKeyOrdersDoNotDeadlock() throws Exception {
+        StripedLocks locks = new StripedLocks(16);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int[] counter = new int[1];
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                // Jeder zweite Thread übergibt die Schlüssel in umgekehrter Reihenfolge
+                long[] keys = t % 2 == 0 ? new long[] {1, 2, 3} : new long[] {3, 2, 1};
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 20_000; i++) {
+                        locks.withLocks(keys, () -> counter[0]++);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // Ein Deadlock würde hier in den Timeout laufen
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // Alle Threads teilen sich den Streifen von Schlüssel 1: Kein Inkrement geht verloren
+        assertEquals(threads * 20_000, counter[0]);
+    }
+}